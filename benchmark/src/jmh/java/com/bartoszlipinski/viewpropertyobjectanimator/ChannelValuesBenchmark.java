@@ -0,0 +1,160 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spec building, binding and per-frame evaluation of a single property family. Channel counts
+ * match the families of the library: dimension/scroll (2), margin/padding (4), percent (7) and
+ * transform (12).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChannelValuesBenchmark {
+
+    @Param({"2", "4", "7", "12"})
+    public int channels;
+
+    private float[] mTarget;
+    private ArrayChannelValues mTemplate;
+    private ArrayChannelValues mValues;
+    private ArrayChannelValues mKeyframeValues;
+    private ArrayChannelValues mSpringValues;
+    private float[] mSpringStart;
+    private float mFraction;
+
+    @Setup
+    public void setUp() {
+        mTarget = new float[channels];
+        mTemplate = build();
+        mValues = build();
+        mValues.resolve(mTarget);
+        mKeyframeValues = build();
+        mKeyframeValues.beginRecording();
+        for (int channel = 0; channel < channels; channel++) {
+            mKeyframeValues.animateTo(channel, 100 + channel);
+        }
+        for (int keyframe = 1; keyframe <= 4; keyframe++) {
+            mKeyframeValues.through(Float.NaN, 25 * keyframe, null);
+        }
+        mKeyframeValues.resolve(mTarget);
+        mSpringStart = new float[channels];
+        mSpringValues = build();
+        mSpringValues.spring(new Spring(1500f, 0.5f));
+        mSpringValues.resolve(mSpringStart);
+    }
+
+    private ArrayChannelValues build() {
+        ArrayChannelValues values = new ArrayChannelValues(channels);
+        for (int channel = 0; channel < channels; channel++) {
+            if (channel % 2 == 0) {
+                values.animateTo(channel, 100 + channel);
+            } else {
+                values.animateBy(channel, 10 * channel);
+            }
+        }
+        return values;
+    }
+
+    @Benchmark
+    public ArrayChannelValues buildSpec() {
+        ArrayChannelValues values = build();
+        values.resolve(mTarget);
+        return values;
+    }
+
+    @Benchmark
+    public ChannelValues<float[]> bindTemplate() {
+        ChannelValues<float[]> values = mTemplate.copy();
+        values.resolve(mTarget);
+        return values;
+    }
+
+    @Benchmark
+    public float[] evaluateFrame() {
+        mFraction += 0.001f;
+        if (mFraction > 1) {
+            mFraction = 0;
+        }
+        mValues.apply(mTarget, mFraction);
+        return mTarget;
+    }
+
+    @Benchmark
+    public float[] evaluateKeyframeFrame() {
+        mFraction += 0.001f;
+        if (mFraction > 1) {
+            mFraction = 0;
+        }
+        mKeyframeValues.apply(mTarget, mFraction);
+        return mTarget;
+    }
+
+    @Benchmark
+    public float[] evaluateSpringFrame() {
+        if (!mSpringValues.step(1 / 60f)) {
+            //start over once the spring comes to rest
+            mSpringValues.resolve(mSpringStart);
+        }
+        mSpringValues.apply(mTarget, 1f);
+        return mTarget;
+    }
+
+    static final class ArrayChannelValues extends ChannelValues<float[]> {
+
+        ArrayChannelValues(int channelCount) {
+            super(channelCount);
+        }
+
+        void apply(float[] target, float animationFraction) {
+            for (int channel = 0; channel < target.length; channel++) {
+                if (isAnimated(channel)) {
+                    int value = (int) animatedValue(channel, animationFraction);
+                    if (changed(channel, value)) {
+                        target[channel] = value;
+                    }
+                }
+            }
+        }
+
+        @Override
+        protected ChannelValues<float[]> newInstance() {
+            return new ArrayChannelValues(channelCount());
+        }
+
+        @Override
+        protected float current(float[] target, int channel) {
+            return target[channel];
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluation of a cubic bezier curve (the way {@code PathInterpolator} is defined) directly and
+ * from a baked {@link LookupTable}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookupTableBenchmark {
+
+    //"fast out, slow in" of the material design guidelines
+    private static final float X1 = 0.4f;
+    private static final float Y1 = 0f;
+    private static final float X2 = 0.2f;
+    private static final float Y2 = 1f;
+
+    @Param({"64", "256", "1024"})
+    public int samples;
+
+    private LookupTable mTable;
+    private float mInput;
+
+    @Setup
+    public void setUp() {
+        float[] values = new float[samples];
+        for (int i = 0; i < samples; i++) {
+            values[i] = bezier(i / (float) (samples - 1));
+        }
+        mTable = new LookupTable(values);
+    }
+
+    private float nextInput() {
+        mInput += 0.001f;
+        if (mInput > 1) {
+            mInput = 0;
+        }
+        return mInput;
+    }
+
+    @Benchmark
+    public float evaluateCurve() {
+        return bezier(nextInput());
+    }
+
+    @Benchmark
+    public float evaluateTable() {
+        return mTable.value(nextInput());
+    }
+
+    /**
+     * Finds the bezier parameter for the given x with a binary search, then returns its y.
+     */
+    private static float bezier(float x) {
+        float start = 0;
+        float end = 1;
+        float t = x;
+        for (int i = 0; i < 24; i++) {
+            t = (start + end) / 2;
+            if (coordinate(t, X1, X2) < x) {
+                start = t;
+            } else {
+                end = t;
+            }
+        }
+        return coordinate(t, Y1, Y2);
+    }
+
+    private static float coordinate(float t, float p1, float p2) {
+        float u = 1 - t;
+        return 3 * u * u * t * p1 + 3 * u * t * t * p2 + t * t * t;
+    }
+}
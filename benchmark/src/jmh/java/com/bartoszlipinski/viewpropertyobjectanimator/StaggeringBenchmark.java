@@ -0,0 +1,79 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single frame of a group animation: local fractions of all the members, each one feeding a
+ * margin-sized (4 channels) family.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StaggeringBenchmark {
+
+    private static final long DURATION = 300;
+    private static final long STAGGER_DELAY = 20;
+
+    @Param({"10", "50"})
+    public int views;
+
+    private float[][] mTargets;
+    private ChannelValuesBenchmark.ArrayChannelValues[] mValues;
+    private float mFraction;
+
+    @Setup
+    public void setUp() {
+        mTargets = new float[views][4];
+        mValues = new ChannelValuesBenchmark.ArrayChannelValues[views];
+        for (int i = 0; i < views; i++) {
+            mValues[i] = new ChannelValuesBenchmark.ArrayChannelValues(4);
+            for (int channel = 0; channel < 4; channel++) {
+                mValues[i].animateTo(channel, 40);
+            }
+            mValues[i].resolve(mTargets[i]);
+        }
+    }
+
+    @Benchmark
+    public float[][] evaluateFrame() {
+        mFraction += 0.001f;
+        if (mFraction > 1) {
+            mFraction = 0;
+        }
+        float playTime = mFraction * Staggering.totalDuration(DURATION, STAGGER_DELAY, views);
+        for (int i = 0; i < views; i++) {
+            mValues[i].apply(mTargets[i], Staggering.localFraction(playTime, i, DURATION, STAGGER_DELAY));
+        }
+        return mTargets;
+    }
+}
@@ -0,0 +1,425 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import java.util.Arrays;
+
+/**
+ * Start, end and target values of all the channels of a single property family, packed into
+ * flat arrays indexed by the channel. Doesn't depend on the Android framework, so the whole
+ * value math can be benchmarked (and tested) on a plain JVM.
+ *
+ * @param <T> type of the object current values are read from
+ */
+abstract class ChannelValues<T> {
+
+    private float[] mFrom;
+    private float[] mTo;
+    //last values applied to the target, valid only for channels flagged in mAppliedChannels
+    private int[] mApplied;
+    private int mAppliedChannels;
+    //targets (and their extras) are only recorded by the builder and can be shared between copies bound to different objects
+    //allocated with the first recorded target, so copies bound to an object don't allocate them at all
+    private float[] mTargets;
+    //rarely used, so it's allocated only when something gets recorded in it
+    private Extras mExtras;
+    private boolean mTargetsShared;
+    private int mAnimatedChannels;
+    private int mByChannels;
+    //channels recorded since the last beginRecording() call
+    private int mRecentChannels;
+    //channels actually applied (channels taken over by another animation are dropped)
+    private int mActiveChannels;
+    //channels that start and end at the same value, there's no point in updating them
+    private int mStaticChannels;
+    //set when the channels are driven by a spring instead of the animation fraction
+    private Spring mSpring;
+    private float[] mPositions;
+    private float[] mVelocities;
+
+    public ChannelValues(int channelCount) {
+        this.mFrom = new float[channelCount];
+        this.mTo = new float[channelCount];
+        this.mApplied = new int[channelCount];
+    }
+
+    public float calculateAnimatedValue(float initialValue, float targetValue, float animationFraction) {
+        return targetValue - ((targetValue - initialValue) * (1.0f - animationFraction));
+    }
+
+    int channelCount() {
+        return mFrom.length;
+    }
+
+    /**
+     * Adds channels for families that only know them once they get recorded (channels are bits of
+     * the masks, so there can be at most 32 of them).
+     */
+    protected void growTo(int channelCount) {
+        if (channelCount <= mFrom.length) {
+            return;
+        }
+        unshareTargets();
+        mFrom = Arrays.copyOf(mFrom, channelCount);
+        mTo = Arrays.copyOf(mTo, channelCount);
+        mApplied = Arrays.copyOf(mApplied, channelCount);
+        if (mTargets != null) {
+            mTargets = Arrays.copyOf(mTargets, channelCount);
+        }
+        if (mExtras != null) {
+            mExtras.growTo(channelCount);
+        }
+        if (mPositions != null) {
+            mPositions = Arrays.copyOf(mPositions, channelCount);
+            mVelocities = Arrays.copyOf(mVelocities, channelCount);
+        }
+    }
+
+    protected void animateTo(int channel, float toValue) {
+        target(channel, toValue);
+        mByChannels &= ~(1 << channel);
+    }
+
+    protected void animateBy(int channel, float byValue) {
+        target(channel, byValue);
+        mByChannels |= 1 << channel;
+    }
+
+    private void target(int channel, float value) {
+        unshareTargets();
+        if (mTargets == null) {
+            mTargets = new float[mFrom.length];
+        }
+        mTargets[channel] = value;
+        if (mExtras != null) {
+            mExtras.clear(channel);
+        }
+        mAnimatedChannels |= 1 << channel;
+        mRecentChannels |= 1 << channel;
+    }
+
+    private void unshareTargets() {
+        if (mTargetsShared) {
+            mTargets = mTargets != null ? mTargets.clone() : null;
+            if (mExtras != null) {
+                mExtras = mExtras.copy();
+            }
+            mTargetsShared = false;
+        }
+    }
+
+    private Extras extras() {
+        unshareTargets();
+        if (mExtras == null) {
+            mExtras = new Extras();
+        }
+        return mExtras;
+    }
+
+    void beginRecording() {
+        mRecentChannels = 0;
+    }
+
+    /**
+     * Adds an intermediate value to all the channels recorded since {@link #beginRecording()}.
+     * Values are relative to the start value for the channels animated "by" a value.
+     */
+    void through(float fraction, float value, Easing easing) {
+        if (mRecentChannels == 0) {
+            return;
+        }
+        Extras extras = extras();
+        if (extras.mKeyframes == null) {
+            extras.mKeyframes = new Keyframes[mFrom.length];
+        }
+        for (int channel = 0; channel < mFrom.length; channel++) {
+            if ((mRecentChannels & (1 << channel)) != 0) {
+                Keyframes keyframes = extras.mKeyframes[channel] != null ? extras.mKeyframes[channel] : Keyframes.EMPTY;
+                extras.mKeyframes[channel] = keyframes.with(fraction, value, easing);
+            }
+        }
+    }
+
+    /**
+     * Makes all the channels recorded since {@link #beginRecording()} start from the given value,
+     * instead of reading it from the target.
+     */
+    void from(float value) {
+        if (mRecentChannels == 0) {
+            return;
+        }
+        Extras extras = extras();
+        if (extras.mStartValues == null) {
+            extras.mStartValues = new float[mFrom.length];
+        }
+        for (int channel = 0; channel < mFrom.length; channel++) {
+            if ((mRecentChannels & (1 << channel)) != 0) {
+                extras.mStartValues[channel] = value;
+            }
+        }
+        extras.mFromChannels |= mRecentChannels;
+    }
+
+    /**
+     * Whether the channel starts from a value given with {@link #from(float)}.
+     */
+    boolean hasStartValue(int channel) {
+        return mExtras != null && mExtras.hasStartValue(channel);
+    }
+
+    private boolean hasKeyframes(int channel) {
+        return mExtras != null && mExtras.mKeyframes != null && mExtras.mKeyframes[channel] != null;
+    }
+
+    boolean hasKeyframes() {
+        if (mExtras != null && mExtras.mKeyframes != null) {
+            for (int channel = 0; channel < mFrom.length; channel++) {
+                if (isAnimated(channel) && mExtras.mKeyframes[channel] != null) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    protected boolean isAnimated(int channel) {
+        return (mActiveChannels & (1 << channel)) != 0;
+    }
+
+    int activeChannels() {
+        return mActiveChannels;
+    }
+
+    int animatedChannels() {
+        return mAnimatedChannels;
+    }
+
+    void drop(int channels) {
+        mActiveChannels &= ~channels;
+    }
+
+    void activate() {
+        mActiveChannels = mAnimatedChannels & ~mStaticChannels;
+        mAppliedChannels = 0;
+    }
+
+    /**
+     * Remembers the value that's about to be applied to the channel and returns {@code false} if
+     * it's the same as the one applied in the previous frame (so there's no need to apply it again).
+     */
+    protected boolean changed(int channel, int value) {
+        int flag = 1 << channel;
+        if ((mAppliedChannels & flag) != 0 && mApplied[channel] == value) {
+            return false;
+        }
+        mApplied[channel] = value;
+        mAppliedChannels |= flag;
+        return true;
+    }
+
+    protected float animatedValue(int channel, float animationFraction) {
+        if (mSpring != null) {
+            return mPositions[channel];
+        }
+        if (hasKeyframes(channel)) {
+            return mExtras.mKeyframes[channel].value(mFrom[channel], mTo[channel],
+                    (mByChannels & (1 << channel)) != 0, animationFraction);
+        }
+        return calculateAnimatedValue(mFrom[channel], mTo[channel], animationFraction);
+    }
+
+    /**
+     * Drives the channels with the given spring (or with the animation fraction again, when
+     * {@code null}). Has to be set before the values are resolved.
+     */
+    void spring(Spring spring) {
+        mSpring = spring;
+        if (spring != null && mPositions == null) {
+            mPositions = new float[mFrom.length];
+            mVelocities = new float[mFrom.length];
+        }
+    }
+
+    boolean isSpring() {
+        return mSpring != null;
+    }
+
+    /**
+     * Advances the spring of every active channel by {@code deltaSeconds}.
+     *
+     * @return whether any of the channels is still moving
+     */
+    boolean step(float deltaSeconds) {
+        boolean moving = false;
+        for (int channel = 0; channel < mFrom.length; channel++) {
+            if (isAnimated(channel)
+                    && mSpring.step(mPositions, mVelocities, channel, mTo[channel], deltaSeconds,
+                    minimumVisibleChange(channel))) {
+                moving = true;
+            }
+        }
+        return moving;
+    }
+
+    /**
+     * Smallest change of the channel's value that can be seen on the screen (the spring is at rest
+     * once it's closer to the target than that). One pixel by default.
+     */
+    protected float minimumVisibleChange(int channel) {
+        return 1f;
+    }
+
+    /**
+     * Reads the current values of the animated channels from the target (unless their start
+     * values were given explicitly) and computes the start and end values of the animation.
+     */
+    void resolve(T target) {
+        onResolve(target);
+        resolve(target, mAnimatedChannels);
+        activate();
+    }
+
+    /**
+     * Reads the start values again for the given channels only (e.g. when the animation takes
+     * them over from another one that is still running).
+     */
+    void resolve(T target, int channels) {
+        for (int channel = 0; channel < mFrom.length; channel++) {
+            if ((channels & (1 << channel)) != 0) {
+                float from = hasStartValue(channel)
+                        ? mExtras.mStartValues[channel]
+                        : current(target, channel);
+                float to = (mByChannels & (1 << channel)) != 0 ? from + mTargets[channel] : mTargets[channel];
+                mFrom[channel] = from;
+                mTo[channel] = to;
+                if (mSpring != null) {
+                    mPositions[channel] = from;
+                    mVelocities[channel] = 0;
+                }
+                if (from == to && !hasKeyframes(channel)) {
+                    mStaticChannels |= 1 << channel;
+                } else {
+                    mStaticChannels &= ~(1 << channel);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts animating the given channels from their current values (they are being taken over
+     * from {@code previous}). When both are springs, the channels keep their velocity.
+     */
+    void takeOver(T target, int channels, ChannelValues<T> previous) {
+        for (int channel = 0; channel < mFrom.length; channel++) {
+            if ((channels & (1 << channel)) != 0) {
+                takeOver(target, channel, previous, channel);
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #takeOver(Object, int, ChannelValues)} for a single channel, which is
+     * {@code previousChannel} in {@code previous}.
+     */
+    void takeOver(T target, int channel, ChannelValues<T> previous, int previousChannel) {
+        int flag = 1 << channel;
+        resolve(target, flag);
+        if (mSpring != null && previous.mSpring != null) {
+            mPositions[channel] = previous.mPositions[previousChannel];
+            mVelocities[channel] = previous.mVelocities[previousChannel];
+            if (mPositions[channel] != mTo[channel] || mVelocities[channel] != 0) {
+                mStaticChannels &= ~flag;
+            }
+        }
+        mActiveChannels |= flag & ~mStaticChannels;
+    }
+
+    /**
+     * Moves the targets of the channels animated by {@code source} without touching their current
+     * positions and velocities, so a running spring smoothly changes its course. "By" targets are
+     * relative to the current values of the target object.
+     */
+    void retarget(T target, ChannelValues<T> source) {
+        for (int channel = 0; channel < mFrom.length; channel++) {
+            int flag = 1 << channel;
+            if ((source.mAnimatedChannels & flag) != 0) {
+                float value = source.mTargets[channel];
+                mTo[channel] = (source.mByChannels & flag) != 0 ? current(target, channel) + value : value;
+                mStaticChannels &= ~flag;
+                mActiveChannels |= flag;
+            }
+        }
+    }
+
+    /**
+     * Returns values animating the same channels (to the same targets) that can be resolved
+     * against another object. The recorded targets are shared until one of the copies changes them.
+     */
+    ChannelValues<T> copy() {
+        ChannelValues<T> copy = newInstance();
+        copy.mTargets = mTargets;
+        copy.mExtras = mExtras;
+        copy.mTargetsShared = true;
+        mTargetsShared = true;
+        copy.mAnimatedChannels = mAnimatedChannels;
+        copy.mByChannels = mByChannels;
+        return copy;
+    }
+
+    protected void onResolve(T target) {
+    }
+
+    protected abstract ChannelValues<T> newInstance();
+
+    protected abstract float current(T target, int channel);
+
+    /**
+     * Keyframes and explicit start values of the channels.
+     */
+    private static final class Extras {
+        Keyframes[] mKeyframes;
+        float[] mStartValues;
+        int mFromChannels;
+
+        boolean hasStartValue(int channel) {
+            return (mFromChannels & (1 << channel)) != 0;
+        }
+
+        void clear(int channel) {
+            if (mKeyframes != null) {
+                mKeyframes[channel] = null;
+            }
+            mFromChannels &= ~(1 << channel);
+        }
+
+        void growTo(int channelCount) {
+            if (mKeyframes != null) {
+                mKeyframes = Arrays.copyOf(mKeyframes, channelCount);
+            }
+            if (mStartValues != null) {
+                mStartValues = Arrays.copyOf(mStartValues, channelCount);
+            }
+        }
+
+        Extras copy() {
+            Extras copy = new Extras();
+            copy.mKeyframes = mKeyframes != null ? mKeyframes.clone() : null;
+            copy.mStartValues = mStartValues != null ? mStartValues.clone() : null;
+            copy.mFromChannels = mFromChannels;
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import java.util.Arrays;
+
+/**
+ * Intermediate values of a single channel, each one reached at a given fraction of the animation.
+ * The start and end values are not part of the table, so the same keyframes can be used for any
+ * number of resolved animations. Immutable, every added keyframe creates a new table.
+ */
+final class Keyframes {
+
+    static final Keyframes EMPTY = new Keyframes(new float[0], new float[0], new Easing[0]);
+
+    //fractions requested for the intermediate values, NaN when they should be spread evenly
+    private final float[] mRequestedFractions;
+    private final float[] mValues;
+    //easing of the segment ending at the intermediate value with the same index (null for linear)
+    private final Easing[] mEasings;
+    //fractions of all the keyframes, including the start (0) and the end (1) of the animation
+    private final float[] mFractions;
+
+    private Keyframes(float[] requestedFractions, float[] values, Easing[] easings) {
+        mRequestedFractions = requestedFractions;
+        mValues = values;
+        mEasings = easings;
+        mFractions = spread(requestedFractions);
+    }
+
+    /**
+     * Returns the keyframes with one more intermediate value, reached at {@code fraction} (or
+     * {@code Float.NaN} to spread the keyframes without a fraction evenly between their
+     * neighbours).
+     */
+    Keyframes with(float fraction, float value, Easing easing) {
+        if (!Float.isNaN(fraction)) {
+            if (fraction <= 0 || fraction >= 1) {
+                throw new IllegalArgumentException("Keyframe fraction has to be > 0 and < 1");
+            }
+            for (float requested : mRequestedFractions) {
+                if (requested >= fraction) {
+                    throw new IllegalArgumentException("Keyframe fractions have to be increasing");
+                }
+            }
+        }
+        int count = mValues.length;
+        float[] requestedFractions = Arrays.copyOf(mRequestedFractions, count + 1);
+        float[] values = Arrays.copyOf(mValues, count + 1);
+        Easing[] easings = Arrays.copyOf(mEasings, count + 1);
+        requestedFractions[count] = fraction;
+        values[count] = value;
+        easings[count] = easing;
+        return new Keyframes(requestedFractions, values, easings);
+    }
+
+    private static float[] spread(float[] requestedFractions) {
+        int count = requestedFractions.length;
+        float[] fractions = new float[count + 2];
+        fractions[count + 1] = 1;
+        int anchor = 0;
+        for (int i = 1; i <= count + 1; i++) {
+            if (i <= count && Float.isNaN(requestedFractions[i - 1])) {
+                continue;
+            }
+            if (i <= count) {
+                fractions[i] = requestedFractions[i - 1];
+            }
+            //everything between two keyframes with known fractions is spread evenly
+            float step = (fractions[i] - fractions[anchor]) / (i - anchor);
+            for (int j = anchor + 1; j < i; j++) {
+                fractions[j] = fractions[anchor] + step * (j - anchor);
+            }
+            anchor = i;
+        }
+        return fractions;
+    }
+
+    /**
+     * Returns the value at the given fraction of the animation going from {@code from} to
+     * {@code to}. Intermediate values are added to {@code from} when they are {@code relative}.
+     */
+    float value(float from, float to, boolean relative, float fraction) {
+        //binary search for the last keyframe at or before the fraction
+        int low = 0;
+        int high = mFractions.length - 2;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (mFractions[middle] <= fraction) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        float start = low == 0 ? from : keyframeValue(low - 1, from, relative);
+        float end = low == mValues.length ? to : keyframeValue(low, from, relative);
+        float segmentFraction = (fraction - mFractions[low]) / (mFractions[low + 1] - mFractions[low]);
+        Easing easing = low < mEasings.length ? mEasings[low] : null;
+        if (easing != null) {
+            segmentFraction = easing.getInterpolation(segmentFraction);
+        }
+        return start + (end - start) * segmentFraction;
+    }
+
+    private float keyframeValue(int index, float from, boolean relative) {
+        return relative ? from + mValues[index] : mValues[index];
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+/**
+ * Curve sampled at evenly spaced points of the {@code [0, 1]} range, evaluated with linear
+ * interpolation between the two closest samples.
+ */
+final class LookupTable {
+
+    private final float[] mSamples;
+    private final int mLastIndex;
+
+    /**
+     * @param samples values of the curve at {@code i / (samples.length - 1)}, at least 2 of them
+     */
+    LookupTable(float[] samples) {
+        if (samples.length < 2) {
+            throw new IllegalArgumentException("At least 2 samples are needed");
+        }
+        mSamples = samples;
+        mLastIndex = samples.length - 1;
+    }
+
+    int sampleCount() {
+        return mSamples.length;
+    }
+
+    float value(float input) {
+        if (input <= 0) {
+            return mSamples[0];
+        }
+        if (input >= 1) {
+            return mSamples[mLastIndex];
+        }
+        float position = input * mLastIndex;
+        int index = (int) position;
+        float weight = position - index;
+        return mSamples[index] + (mSamples[index + 1] - mSamples[index]) * weight;
+    }
+}
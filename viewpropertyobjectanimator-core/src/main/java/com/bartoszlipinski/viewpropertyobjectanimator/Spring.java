@@ -0,0 +1,102 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+/**
+ * Damped harmonic oscillator (with unit mass) moving channel values towards their targets. Every
+ * step uses the closed form solution, so it's stable no matter how long the frame was.
+ */
+final class Spring {
+
+    //same as in the SpringAnimation of the AndroidX dynamic animation library
+    private static final float VALUE_THRESHOLD_MULTIPLIER = 0.75f;
+    private static final float VELOCITY_THRESHOLD_MULTIPLIER = 62.5f * VALUE_THRESHOLD_MULTIPLIER;
+
+    private final double mNaturalFrequency;
+    private final double mDampingRatio;
+    //pre-computed parts of the solution
+    private final double mGammaPlus;
+    private final double mGammaMinus;
+    private final double mDampedFrequency;
+
+    Spring(float stiffness, float dampingRatio) {
+        if (stiffness <= 0) {
+            throw new IllegalArgumentException("stiffness has to be > 0");
+        }
+        if (dampingRatio < 0) {
+            throw new IllegalArgumentException("dampingRatio cannot be < 0");
+        }
+        mNaturalFrequency = Math.sqrt(stiffness);
+        mDampingRatio = dampingRatio;
+        if (dampingRatio > 1) {
+            double root = mNaturalFrequency * Math.sqrt(dampingRatio * dampingRatio - 1);
+            mGammaPlus = -dampingRatio * mNaturalFrequency + root;
+            mGammaMinus = -dampingRatio * mNaturalFrequency - root;
+            mDampedFrequency = 0;
+        } else {
+            mGammaPlus = 0;
+            mGammaMinus = 0;
+            mDampedFrequency = mNaturalFrequency * Math.sqrt(1 - dampingRatio * dampingRatio);
+        }
+    }
+
+    /**
+     * Moves the value at {@code index} (with its velocity, in units per second) towards the target.
+     *
+     * @param minimumVisibleChange smallest change of the value that can be seen on the screen, the
+     *                             spring is at rest once both the distance to the target and the
+     *                             velocity are small enough for it
+     * @return {@code false} if the spring came to rest (the value is then set to the target)
+     */
+    boolean step(float[] values, float[] velocities, int index, float target, float deltaSeconds,
+                 float minimumVisibleChange) {
+        double displacement = values[index] - target;
+        double velocity = velocities[index];
+        double t = deltaSeconds;
+        double newDisplacement;
+        double newVelocity;
+        if (mDampingRatio > 1) {
+            double b = (mGammaMinus * displacement - velocity) / (mGammaMinus - mGammaPlus);
+            double a = displacement - b;
+            double minus = Math.exp(mGammaMinus * t);
+            double plus = Math.exp(mGammaPlus * t);
+            newDisplacement = a * minus + b * plus;
+            newVelocity = a * mGammaMinus * minus + b * mGammaPlus * plus;
+        } else if (mDampingRatio == 1) {
+            double b = velocity + mNaturalFrequency * displacement;
+            double decay = Math.exp(-mNaturalFrequency * t);
+            newDisplacement = (displacement + b * t) * decay;
+            newVelocity = b * decay - mNaturalFrequency * newDisplacement;
+        } else {
+            double sinCoefficient = (mDampingRatio * mNaturalFrequency * displacement + velocity) / mDampedFrequency;
+            double decay = Math.exp(-mDampingRatio * mNaturalFrequency * t);
+            double cos = Math.cos(mDampedFrequency * t);
+            double sin = Math.sin(mDampedFrequency * t);
+            newDisplacement = decay * (displacement * cos + sinCoefficient * sin);
+            newVelocity = -mDampingRatio * mNaturalFrequency * newDisplacement
+                    + decay * mDampedFrequency * (sinCoefficient * cos - displacement * sin);
+        }
+        if (Math.abs(newDisplacement) < minimumVisibleChange * VALUE_THRESHOLD_MULTIPLIER
+                && Math.abs(newVelocity) < minimumVisibleChange * VELOCITY_THRESHOLD_MULTIPLIER) {
+            values[index] = target;
+            velocities[index] = 0;
+            return false;
+        }
+        values[index] = (float) (target + newDisplacement);
+        velocities[index] = (float) newVelocity;
+        return true;
+    }
+}
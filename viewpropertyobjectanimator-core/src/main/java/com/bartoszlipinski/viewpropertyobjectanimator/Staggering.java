@@ -0,0 +1,42 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+/**
+ * Timing math of the group animations, each member starting {@code staggerDelay} ms after the
+ * previous one.
+ */
+final class Staggering {
+
+    private Staggering() {
+    }
+
+    static long totalDuration(long duration, long staggerDelay, int count) {
+        return duration + staggerDelay * Math.max(count - 1, 0);
+    }
+
+    /**
+     * Returns the (not interpolated) fraction of the {@code index}-th member of the group, given
+     * the play time of the whole group.
+     */
+    static float localFraction(float playTime, int index, long duration, long staggerDelay) {
+        float localPlayTime = playTime - index * staggerDelay;
+        if (duration == 0) {
+            return localPlayTime >= 0 ? 1 : 0;
+        }
+        return Math.max(0, Math.min(1, localPlayTime / duration));
+    }
+}
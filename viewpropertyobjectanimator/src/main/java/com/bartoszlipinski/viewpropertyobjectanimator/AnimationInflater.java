@@ -0,0 +1,423 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.XmlResourceParser;
+import android.graphics.Color;
+import android.util.AttributeSet;
+import android.util.DisplayMetrics;
+import android.util.LruCache;
+import android.view.InflateException;
+import android.view.animation.AnimationUtils;
+import android.view.animation.Interpolator;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+
+/**
+ * Inflates {@link AnimationTemplate}s from XML resources (in {@code res/xml}), e.g.:
+ * <pre>
+ * &lt;animation duration="300" interpolator="@android:anim/decelerate_interpolator" withLayer="true"&gt;
+ *     &lt;alpha value="1" from="0" /&gt;
+ *     &lt;translationY by="-16dp" /&gt;
+ *     &lt;leftMargin value="@dimen/margin"&gt;
+ *         &lt;through value="40dp" fraction="0.3" /&gt;
+ *     &lt;/leftMargin&gt;
+ *     &lt;backgroundColor value="#FF3F51B5" /&gt;
+ * &lt;/animation&gt;
+ * </pre>
+ * Every property of {@link ViewPropertyObjectAnimator} is an element named like its method, with
+ * either a {@code value} or a {@code by} attribute and optionally a {@code from} attribute and
+ * {@code through} keyframes (with {@code value}, {@code fraction} and {@code interpolator}).
+ * Colors ({@code backgroundColor}, {@code textColor} and {@code tint}) take a {@code value} only.
+ * Values can be plain numbers, dimensions ({@code dp}, {@code sp}, {@code px}), colors or
+ * references to dimension and color resources. The root element takes the {@code duration},
+ * {@code startDelay} and {@code interpolator} of the animation, the {@code with...} options
+ * ({@code withLayer}, {@code withAutoLayer}, {@code withSizeApproximation},
+ * {@code withRenderThread}, {@code withLinearColorSpace}) as booleans and the {@code stiffness}
+ * and/or {@code dampingRatio} of a spring.
+ * <p>
+ * Templates are immutable, so they are cached (up to 32 of them by default) and inflating the same
+ * resource again is just a lookup. Dimensions, colors and interpolators depend on the
+ * configuration of the context, so it's a part of the cache key along with the resource id.
+ * Can be used on any thread.
+ */
+public final class AnimationInflater {
+
+    private static final String ROOT_TAG = "animation";
+    private static final String KEYFRAME_TAG = "through";
+
+    private static LruCache<Key, AnimationTemplate> sCache = new LruCache<>(32);
+
+    private AnimationInflater() {
+    }
+
+    public static AnimationTemplate inflate(Context context, int resId) {
+        LruCache<Key, AnimationTemplate> cache = cache();
+        Configuration configuration = context.getResources().getConfiguration();
+        AnimationTemplate template = cache.get(new Key(resId, configuration));
+        if (template == null) {
+            //parsed outside of any lock, so at worst two threads parse the same resource at once
+            template = parse(context, resId);
+            //the configuration of the context can change later on, so the key keeps a copy
+            cache.put(new Key(resId, new Configuration(configuration)), template);
+        }
+        return template;
+    }
+
+    /**
+     * Sets how many inflated templates are kept (and drops all of them).
+     */
+    public static synchronized void setCacheSize(int cacheSize) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("cacheSize has to be > 0");
+        }
+        sCache = new LruCache<>(cacheSize);
+    }
+
+    public static void clearCache() {
+        cache().evictAll();
+    }
+
+    private static synchronized LruCache<Key, AnimationTemplate> cache() {
+        return sCache;
+    }
+
+    private static AnimationTemplate parse(Context context, int resId) {
+        XmlResourceParser parser = context.getResources().getXml(resId);
+        try {
+            return parse(context, parser);
+        } catch (XmlPullParserException | IOException e) {
+            throw new InflateException("Can't inflate the animation " + Integer.toHexString(resId), e);
+        } finally {
+            parser.close();
+        }
+    }
+
+    private static AnimationTemplate parse(Context context, XmlResourceParser parser)
+            throws XmlPullParserException, IOException {
+        int type;
+        do {
+            type = parser.next();
+        } while (type != XmlPullParser.START_TAG && type != XmlPullParser.END_DOCUMENT);
+        if (type != XmlPullParser.START_TAG || !ROOT_TAG.equals(parser.getName())) {
+            throw new InflateException(parser.getPositionDescription() + ": <" + ROOT_TAG + "> expected");
+        }
+        ViewPropertyObjectAnimator animator = ViewPropertyObjectAnimator.template();
+        setUp(context, parser, animator);
+        int propertyDepth = parser.getDepth() + 1;
+        String property = null;
+        while ((type = parser.next()) != XmlPullParser.END_DOCUMENT) {
+            if (type != XmlPullParser.START_TAG) {
+                continue;
+            }
+            String name = parser.getName();
+            if (parser.getDepth() == propertyDepth) {
+                property = name;
+                animate(context, parser, animator, name);
+            } else if (parser.getDepth() == propertyDepth + 1 && KEYFRAME_TAG.equals(name)) {
+                if (isColor(property)) {
+                    throw new InflateException(parser.getPositionDescription() + ": <" + property + "> can't have keyframes");
+                }
+                String fraction = parser.getAttributeValue(null, "fraction");
+                animator.through(fraction != null ? parseFloat(parser, fraction) : Float.NaN,
+                        floatValue(context, parser, "value", property),
+                        interpolator(context, parser));
+            } else {
+                throw new InflateException(parser.getPositionDescription() + ": unexpected <" + name + ">");
+            }
+        }
+        return animator.toTemplate();
+    }
+
+    private static void setUp(Context context, AttributeSet attrs, ViewPropertyObjectAnimator animator) {
+        int duration = attrs.getAttributeIntValue(null, "duration", -1);
+        if (duration != -1) {
+            animator.setDuration(duration);
+        }
+        int startDelay = attrs.getAttributeIntValue(null, "startDelay", -1);
+        if (startDelay != -1) {
+            animator.setStartDelay(startDelay);
+        }
+        Interpolator interpolator = interpolator(context, attrs);
+        if (interpolator != null) {
+            animator.setInterpolator(interpolator);
+        }
+        if (attrs.getAttributeBooleanValue(null, "withLayer", false)) {
+            animator.withLayer();
+        }
+        if (attrs.getAttributeBooleanValue(null, "withAutoLayer", false)) {
+            animator.withAutoLayer();
+        }
+        if (attrs.getAttributeBooleanValue(null, "withSizeApproximation", false)) {
+            animator.withSizeApproximation();
+        }
+        if (attrs.getAttributeBooleanValue(null, "withRenderThread", false)) {
+            animator.withRenderThread();
+        }
+        if (attrs.getAttributeBooleanValue(null, "withLinearColorSpace", false)) {
+            animator.withLinearColorSpace();
+        }
+        if (attrs.getAttributeValue(null, "stiffness") != null || attrs.getAttributeValue(null, "dampingRatio") != null) {
+            animator.withSpring(attrs.getAttributeFloatValue(null, "stiffness", 1500f),
+                    attrs.getAttributeFloatValue(null, "dampingRatio", 0.5f));
+        }
+    }
+
+    private static Interpolator interpolator(Context context, AttributeSet attrs) {
+        int interpolatorId = attrs.getAttributeResourceValue(null, "interpolator", 0);
+        return interpolatorId != 0 ? AnimationUtils.loadInterpolator(context, interpolatorId) : null;
+    }
+
+    private static void animate(Context context, XmlResourceParser parser, ViewPropertyObjectAnimator animator,
+                                String property) {
+        boolean by = parser.getAttributeValue(null, "by") != null;
+        String attribute = by ? "by" : "value";
+        if (parser.getAttributeValue(null, attribute) == null) {
+            throw new InflateException(parser.getPositionDescription() + ": <" + property + "> needs a value or a by attribute");
+        }
+        boolean animated;
+        if (isColor(property)) {
+            if (by) {
+                throw new InflateException(parser.getPositionDescription() + ": <" + property + "> can't be animated by a value");
+            }
+            animated = animateColor(animator, property, colorValue(context, parser, attribute));
+        } else {
+            float value = floatValue(context, parser, attribute, property);
+            animated = animateFloat(animator, property, value, by) != null
+                    || animateInt(animator, property, Math.round(value), by) != null;
+        }
+        if (!animated) {
+            throw new InflateException(parser.getPositionDescription() + ": unknown property <" + property + ">");
+        }
+        if (parser.getAttributeValue(null, "from") != null) {
+            if (isColor(property)) {
+                throw new InflateException(parser.getPositionDescription() + ": <" + property + "> can't have a from attribute");
+            }
+            animator.from(floatValue(context, parser, "from", property));
+        }
+    }
+
+    private static boolean isColor(String property) {
+        return "backgroundColor".equals(property) || "textColor".equals(property) || "tint".equals(property);
+    }
+
+    private static boolean animateColor(ViewPropertyObjectAnimator animator, String property, int color) {
+        switch (property) {
+            case "backgroundColor":
+                animator.backgroundColor(color);
+                return true;
+            case "textColor":
+                animator.textColor(color);
+                return true;
+            case "tint":
+                animator.tint(color);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static ViewPropertyObjectAnimator animateFloat(ViewPropertyObjectAnimator animator, String property, float value, boolean by) {
+        switch (property) {
+            case "scaleX":
+                return by ? animator.scaleXBy(value) : animator.scaleX(value);
+            case "scaleY":
+                return by ? animator.scaleYBy(value) : animator.scaleY(value);
+            case "scales":
+                return by ? animator.scalesBy(value) : animator.scales(value);
+            case "translationX":
+                return by ? animator.translationXBy(value) : animator.translationX(value);
+            case "translationY":
+                return by ? animator.translationYBy(value) : animator.translationY(value);
+            case "translationZ":
+                return by ? animator.translationZBy(value) : animator.translationZ(value);
+            case "alpha":
+                return by ? animator.alphaBy(value) : animator.alpha(value);
+            case "rotation":
+                return by ? animator.rotationBy(value) : animator.rotation(value);
+            case "rotationX":
+                return by ? animator.rotationXBy(value) : animator.rotationX(value);
+            case "rotationY":
+                return by ? animator.rotationYBy(value) : animator.rotationY(value);
+            case "x":
+                return by ? animator.xBy(value) : animator.x(value);
+            case "y":
+                return by ? animator.yBy(value) : animator.y(value);
+            case "z":
+                return by ? animator.zBy(value) : animator.z(value);
+            case "elevation":
+                return by ? animator.elevationBy(value) : animator.elevation(value);
+            case "widthPercent":
+                return by ? animator.widthPercentBy(value) : animator.widthPercent(value);
+            case "heightPercent":
+                return by ? animator.heightPercentBy(value) : animator.heightPercent(value);
+            case "sizePercent":
+                return by ? animator.sizePercentBy(value) : animator.sizePercent(value);
+            case "leftMarginPercent":
+                return by ? animator.leftMarginPercentBy(value) : animator.leftMarginPercent(value);
+            case "topMarginPercent":
+                return by ? animator.topMarginPercentBy(value) : animator.topMarginPercent(value);
+            case "rightMarginPercent":
+                return by ? animator.rightMarginPercentBy(value) : animator.rightMarginPercent(value);
+            case "bottomMarginPercent":
+                return by ? animator.bottomMarginPercentBy(value) : animator.bottomMarginPercent(value);
+            case "horizontalMarginPercent":
+                return by ? animator.horizontalMarginPercentBy(value) : animator.horizontalMarginPercent(value);
+            case "verticalMarginPercent":
+                return by ? animator.verticalMarginPercentBy(value) : animator.verticalMarginPercent(value);
+            case "marginPercent":
+                return by ? animator.marginPercentBy(value) : animator.marginPercent(value);
+            case "aspectRatio":
+                return by ? animator.aspectRatioBy(value) : animator.aspectRatio(value);
+            case "constraintWidthPercent":
+                return by ? animator.constraintWidthPercentBy(value) : animator.constraintWidthPercent(value);
+            case "constraintHeightPercent":
+                return by ? animator.constraintHeightPercentBy(value) : animator.constraintHeightPercent(value);
+            case "horizontalBias":
+                return by ? animator.horizontalBiasBy(value) : animator.horizontalBias(value);
+            case "verticalBias":
+                return by ? animator.verticalBiasBy(value) : animator.verticalBias(value);
+            case "dimensionRatio":
+                return by ? animator.dimensionRatioBy(value) : animator.dimensionRatio(value);
+            case "guidePercent":
+                return by ? animator.guidePercentBy(value) : animator.guidePercent(value);
+            default:
+                return null;
+        }
+    }
+
+    private static ViewPropertyObjectAnimator animateInt(ViewPropertyObjectAnimator animator, String property, int value, boolean by) {
+        switch (property) {
+            case "leftMargin":
+                return by ? animator.leftMarginBy(value) : animator.leftMargin(value);
+            case "topMargin":
+                return by ? animator.topMarginBy(value) : animator.topMargin(value);
+            case "rightMargin":
+                return by ? animator.rightMarginBy(value) : animator.rightMargin(value);
+            case "bottomMargin":
+                return by ? animator.bottomMarginBy(value) : animator.bottomMargin(value);
+            case "horizontalMargin":
+                return by ? animator.horizontalMarginBy(value) : animator.horizontalMargin(value);
+            case "verticalMargin":
+                return by ? animator.verticalMarginBy(value) : animator.verticalMargin(value);
+            case "margin":
+                return by ? animator.marginBy(value) : animator.margin(value);
+            case "width":
+                return by ? animator.widthBy(value) : animator.width(value);
+            case "height":
+                return by ? animator.heightBy(value) : animator.height(value);
+            case "size":
+                return by ? animator.sizeBy(value) : animator.size(value);
+            case "leftPadding":
+                return by ? animator.leftPaddingBy(value) : animator.leftPadding(value);
+            case "topPadding":
+                return by ? animator.topPaddingBy(value) : animator.topPadding(value);
+            case "rightPadding":
+                return by ? animator.rightPaddingBy(value) : animator.rightPadding(value);
+            case "bottomPadding":
+                return by ? animator.bottomPaddingBy(value) : animator.bottomPadding(value);
+            case "horizontalPadding":
+                return by ? animator.horizontalPaddingBy(value) : animator.horizontalPadding(value);
+            case "verticalPadding":
+                return by ? animator.verticalPaddingBy(value) : animator.verticalPadding(value);
+            case "padding":
+                return by ? animator.paddingBy(value) : animator.padding(value);
+            case "scrollX":
+                return by ? animator.scrollXBy(value) : animator.scrollX(value);
+            case "scrollY":
+                return by ? animator.scrollYBy(value) : animator.scrollY(value);
+            default:
+                return null;
+        }
+    }
+
+    private static float floatValue(Context context, XmlResourceParser parser, String attribute, String property) {
+        int resId = parser.getAttributeResourceValue(null, attribute, 0);
+        if (resId != 0) {
+            return context.getResources().getDimension(resId);
+        }
+        String value = parser.getAttributeValue(null, attribute);
+        if (value == null) {
+            throw new InflateException(parser.getPositionDescription() + ": <" + KEYFRAME_TAG + "> of <" + property + "> needs a value");
+        }
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        if (value.endsWith("dip")) {
+            return parseFloat(parser, value.substring(0, value.length() - 3)) * metrics.density;
+        } else if (value.endsWith("dp")) {
+            return parseFloat(parser, value.substring(0, value.length() - 2)) * metrics.density;
+        } else if (value.endsWith("sp")) {
+            return parseFloat(parser, value.substring(0, value.length() - 2)) * metrics.scaledDensity;
+        } else if (value.endsWith("px")) {
+            return parseFloat(parser, value.substring(0, value.length() - 2));
+        }
+        return parseFloat(parser, value);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static int colorValue(Context context, XmlResourceParser parser, String attribute) {
+        int resId = parser.getAttributeResourceValue(null, attribute, 0);
+        if (resId != 0) {
+            return context.getResources().getColor(resId);
+        }
+        try {
+            return Color.parseColor(parser.getAttributeValue(null, attribute));
+        } catch (IllegalArgumentException e) {
+            throw new InflateException(parser.getPositionDescription() + ": invalid color", e);
+        }
+    }
+
+    private static float parseFloat(XmlPullParser parser, String value) {
+        try {
+            return Float.parseFloat(value.trim());
+        } catch (NumberFormatException e) {
+            throw new InflateException(parser.getPositionDescription() + ": invalid number \"" + value + "\"", e);
+        }
+    }
+
+    private static final class Key {
+
+        private final int mResId;
+        private final Configuration mConfiguration;
+
+        Key(int resId, Configuration configuration) {
+            mResId = resId;
+            mConfiguration = configuration;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return mResId == key.mResId && mConfiguration.equals(key.mConfiguration);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * mResId + mConfiguration.hashCode();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+/**
+ * Work done by a single run of an animator built with
+ * {@link ViewPropertyObjectAnimator#withMetrics(AnimationMetrics.Listener)}.
+ * <p>
+ * The same instance gets reused when the animator is started again, so it should only be read
+ * inside {@link Listener#onAnimationMetrics(AnimationMetrics)}.
+ */
+public final class AnimationMetrics {
+
+    public interface Listener {
+        /**
+         * Called on the UI thread when the animation ends or gets canceled.
+         */
+        void onAnimationMetrics(AnimationMetrics metrics);
+    }
+
+    int mFrameCount;
+    int mUnchangedFrameCount;
+    long mUpdateTimeNanos;
+    int mLayoutRequestCount;
+    int mSetPaddingCount;
+    int mScrollToCount;
+    boolean mWithLayer;
+
+    AnimationMetrics() {
+    }
+
+    void reset() {
+        mFrameCount = 0;
+        mUnchangedFrameCount = 0;
+        mUpdateTimeNanos = 0;
+        mLayoutRequestCount = 0;
+        mSetPaddingCount = 0;
+        mScrollToCount = 0;
+        mWithLayer = false;
+    }
+
+    /**
+     * Counts a single frame that resulted in the given {@link ChangeUpdateListener} effects.
+     */
+    void frame(int effects, long updateTimeNanos) {
+        mFrameCount++;
+        mUpdateTimeNanos += updateTimeNanos;
+        if (effects == ChangeUpdateListener.UNCHANGED) {
+            mUnchangedFrameCount++;
+        }
+    }
+
+    void count(int effects) {
+        if ((effects & ChangeUpdateListener.LAYOUT_REQUESTED) != 0) {
+            mLayoutRequestCount++;
+        }
+        if ((effects & ChangeUpdateListener.PADDING_SET) != 0) {
+            mSetPaddingCount++;
+        }
+        if ((effects & ChangeUpdateListener.SCROLLED) != 0) {
+            mScrollToCount++;
+        }
+    }
+
+    /**
+     * Number of frames dispatched to the animated properties.
+     */
+    public int getFrameCount() {
+        return mFrameCount;
+    }
+
+    /**
+     * Number of frames in which none of the animated properties changed its value.
+     */
+    public int getUnchangedFrameCount() {
+        return mUnchangedFrameCount;
+    }
+
+    /**
+     * Total time spent applying the animated values (excluding user's update listeners).
+     */
+    public long getUpdateTimeNanos() {
+        return mUpdateTimeNanos;
+    }
+
+    /**
+     * Number of layout requests made while applying the frames, one per changed layout property
+     * family and frame (the requests of a view made in a frame are still issued just once).
+     */
+    public int getLayoutRequestCount() {
+        return mLayoutRequestCount;
+    }
+
+    public int getSetPaddingCount() {
+        return mSetPaddingCount;
+    }
+
+    public int getScrollToCount() {
+        return mScrollToCount;
+    }
+
+    /**
+     * Whether the view was on a hardware layer when the animation started.
+     */
+    public boolean isWithLayer() {
+        return mWithLayer;
+    }
+
+    @Override
+    public String toString() {
+        return "AnimationMetrics{" +
+                "frames=" + mFrameCount +
+                ", unchangedFrames=" + mUnchangedFrameCount +
+                ", updateTimeNanos=" + mUpdateTimeNanos +
+                ", layoutRequests=" + mLayoutRequestCount +
+                ", setPadding=" + mSetPaddingCount +
+                ", scrollTo=" + mScrollToCount +
+                ", withLayer=" + mWithLayer +
+                '}';
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.animation.Animator;
+import android.animation.ObjectAnimator;
+import android.animation.ValueAnimator;
+import android.os.Build;
+import android.view.View;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.Interpolator;
+import android.view.animation.LinearInterpolator;
+
+import java.util.List;
+
+/**
+ * Immutable animation setup that can be applied to any number of views. Created with
+ * {@link ViewPropertyObjectAnimator#toTemplate()}, e.g.:
+ * <pre>
+ * AnimationTemplate fadeIn = ViewPropertyObjectAnimator.template()
+ *         .alpha(1f)
+ *         .translationY(0f)
+ *         .setDuration(300)
+ *         .toTemplate();
+ *
+ * fadeIn.start(itemView);
+ * </pre>
+ * Target values, interpolator and listeners are shared between all the animators created
+ * from the template, only the start values are read separately for every view (and end actions
+ * are tracked separately for every animator, so a canceled one doesn't skip them for the others).
+ * <p>
+ * Templates are never modified once created, so they can be built on a worker thread and
+ * handed over to the main thread, where binding a view and starting the animation only copies
+ * the recorded values (the animators themselves have to be created on the main thread).
+ */
+public final class AnimationTemplate {
+
+    final long mDuration;
+    final long mStartDelay;
+    final boolean mWithLayer;
+    final boolean mWithAutoLayer;
+    final boolean mWithSizeApproximation;
+    final boolean mWithRenderThread;
+    final boolean mWithLinearColorSpace;
+    final Spring mSpring;
+    final Interpolator mInterpolator;
+    final AnimationMetrics.Listener mMetricsListener;
+    final Animator.AnimatorListener[] mListeners;
+    final Runnable[] mEndActions;
+    final ValueAnimator.AnimatorUpdateListener[] mUpdateListeners;
+    final Animator.AnimatorPauseListener[] mPauseListeners;
+    final TransformChangeListener mTransformListener;
+    final MarginChangeListener mMarginListener;
+    final DimensionChangeListener mDimensionListener;
+    final PaddingChangeListener mPaddingListener;
+    final ScrollChangeListener mScrollListener;
+    final PercentChangeListener mPercentListener;
+    final ConstraintChangeListener mConstraintListener;
+    final ColorChangeListener mColorListener;
+    final CustomChangeListener mCustomListener;
+
+    AnimationTemplate(long duration, long startDelay, boolean withLayer, boolean withAutoLayer,
+                      boolean withSizeApproximation, boolean withRenderThread,
+                      boolean withLinearColorSpace, Spring spring,
+                      Interpolator interpolator, AnimationMetrics.Listener metricsListener,
+                      Animator.AnimatorListener[] listeners, Runnable[] endActions,
+                      ValueAnimator.AnimatorUpdateListener[] updateListeners,
+                      Animator.AnimatorPauseListener[] pauseListeners,
+                      TransformChangeListener transformListener,
+                      MarginChangeListener marginListener,
+                      DimensionChangeListener dimensionListener,
+                      PaddingChangeListener paddingListener,
+                      ScrollChangeListener scrollListener,
+                      PercentChangeListener percentListener,
+                      ConstraintChangeListener constraintListener,
+                      ColorChangeListener colorListener,
+                      CustomChangeListener customListener) {
+        mDuration = duration;
+        mStartDelay = startDelay;
+        mWithLayer = withLayer;
+        mWithAutoLayer = withAutoLayer;
+        mWithSizeApproximation = withSizeApproximation;
+        mWithRenderThread = withRenderThread;
+        mWithLinearColorSpace = withLinearColorSpace;
+        mSpring = spring;
+        mInterpolator = interpolator;
+        mMetricsListener = metricsListener;
+        mListeners = listeners;
+        mEndActions = endActions;
+        mUpdateListeners = updateListeners;
+        mPauseListeners = pauseListeners;
+        mTransformListener = transformListener;
+        mMarginListener = marginListener;
+        mDimensionListener = dimensionListener;
+        mPaddingListener = paddingListener;
+        mScrollListener = scrollListener;
+        mPercentListener = percentListener;
+        mConstraintListener = constraintListener;
+        mColorListener = colorListener;
+        mCustomListener = customListener;
+    }
+
+    /**
+     * Returns a {@link ViewPropertyObjectAnimator} for the given view, set up just like the
+     * template. It can be further adjusted without affecting the template.
+     */
+    public ViewPropertyObjectAnimator animate(View view) {
+        return new ViewPropertyObjectAnimator(view, this);
+    }
+
+    public ObjectAnimator get(View view) {
+        return animate(view).get();
+    }
+
+    public void start(View view) {
+        get(view).start();
+    }
+
+    /**
+     * Returns a single animator applying the template to all the given views, each one starting
+     * {@code staggerDelay} ms after the previous one. The whole group is driven by one
+     * {@code ValueAnimator}, so there's a single frame callback and listener dispatch no matter
+     * how many views are animated.
+     * <p>
+     * Listeners of the template are added to the returned animator (so they are notified once
+     * for the whole group).
+     */
+    public ValueAnimator get(List<? extends View> views, long staggerDelay) {
+        if (staggerDelay < 0) {
+            throw new IllegalArgumentException("staggerDelay cannot be < 0");
+        }
+        ValueAnimator animator = ValueAnimator.ofFloat(0f, 1f);
+        long duration = mDuration != -1 ? mDuration : animator.getDuration();
+        FusedUpdateListener[] updateListeners = new FusedUpdateListener[views.size()];
+        for (int i = 0; i < updateListeners.length; i++) {
+            ViewPropertyObjectAnimator viewAnimator = animate(views.get(i));
+            updateListeners[i] = viewAnimator.updateListener();
+            animator.addListener(updateListeners[i]);
+            viewAnimator.addViewListeners(animator, updateListeners[i]);
+        }
+        animator.setDuration(Staggering.totalDuration(duration, staggerDelay, updateListeners.length));
+        animator.setInterpolator(new LinearInterpolator());
+        if (mStartDelay != -1) {
+            animator.setStartDelay(mStartDelay);
+        }
+        for (Animator.AnimatorListener listener : mListeners) {
+            animator.addListener(listener);
+        }
+        for (Runnable action : mEndActions) {
+            animator.addListener(new EndActionListener(action));
+        }
+        animator.addUpdateListener(new StaggeredUpdateListener(updateListeners, duration, staggerDelay,
+                mInterpolator != null ? mInterpolator : new AccelerateDecelerateInterpolator()));
+        for (ValueAnimator.AnimatorUpdateListener listener : mUpdateListeners) {
+            animator.addUpdateListener(listener);
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            for (Animator.AnimatorPauseListener listener : mPauseListeners) {
+                animator.addPauseListener(listener);
+            }
+        }
+        return animator;
+    }
+
+    public void start(List<? extends View> views, long staggerDelay) {
+        get(views, staggerDelay).start();
+    }
+}
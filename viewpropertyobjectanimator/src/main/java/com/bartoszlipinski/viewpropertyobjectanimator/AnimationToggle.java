@@ -0,0 +1,91 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.animation.ObjectAnimator;
+
+/**
+ * Plays a single animation forwards and backwards, always reusing the same animator (and its
+ * listeners). Created with {@link ViewPropertyObjectAnimator#getToggle()}, e.g.:
+ * <pre>
+ * AnimationToggle expand = ViewPropertyObjectAnimator.animate(view)
+ *         .height(expandedHeight)
+ *         .getToggle();
+ *
+ * view.setOnClickListener(v -&gt; expand.toggle());
+ * </pre>
+ * Changing the direction while the animation runs makes it go back from its current fraction.
+ */
+public final class AnimationToggle {
+
+    private final ObjectAnimator mAnimator;
+    private boolean mForward;
+
+    AnimationToggle(ObjectAnimator animator) {
+        mAnimator = animator;
+    }
+
+    /**
+     * Plays the animation towards its end, unless it's already there (or on its way there).
+     */
+    public void forward() {
+        if (mForward) {
+            return;
+        }
+        mForward = true;
+        if (mAnimator.isRunning()) {
+            mAnimator.reverse();
+        } else {
+            mAnimator.start();
+        }
+    }
+
+    /**
+     * Plays the animation back to its start, unless it's already there (or on its way there).
+     */
+    public void reverse() {
+        if (!mForward) {
+            return;
+        }
+        mForward = false;
+        //starts from the end when the animator isn't running
+        mAnimator.reverse();
+    }
+
+    public void toggle() {
+        if (mForward) {
+            reverse();
+        } else {
+            forward();
+        }
+    }
+
+    /**
+     * Whether the animation is at its end or on its way there.
+     */
+    public boolean isForward() {
+        return mForward;
+    }
+
+    /**
+     * Returns the animator played by the toggle. It can be used to add listeners or change the
+     * timing, but it should only be started with {@link #forward()}, {@link #reverse()} and
+     * {@link #toggle()}.
+     */
+    public ObjectAnimator getAnimator() {
+        return mAnimator;
+    }
+}
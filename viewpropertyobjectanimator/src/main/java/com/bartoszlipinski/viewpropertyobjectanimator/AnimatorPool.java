@@ -0,0 +1,143 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ObjectAnimator;
+import android.animation.PropertyValuesHolder;
+import android.animation.TimeInterpolator;
+import android.animation.ValueAnimator;
+import android.view.View;
+
+import java.util.ArrayList;
+
+/**
+ * Bounded pool of the {@code ObjectAnimator}s built by {@link ViewPropertyObjectAnimator#get()}.
+ * Disabled by default (see {@link ViewPropertyObjectAnimator#setAnimatorPoolSize(int)}). Every
+ * animator is pooled together with the listener putting it back and the property holder driving
+ * its {@link FusedUpdateListener} on API 24+. The {@code FusedUpdateListener} itself (and the other
+ * listeners added by {@code get()}) hold the values of a single animation, so they're created anew
+ * for every animator (and dropped when it's recycled).
+ * <p>
+ * Animators are only touched on the UI thread, so the pool doesn't need any synchronization.
+ */
+final class AnimatorPool {
+
+    private static final PropertyValuesHolder[] NO_HOLDERS = new PropertyValuesHolder[0];
+
+    private static final ArrayList<Entry> sPool = new ArrayList<>();
+    private static int sMaxSize = 0;
+
+    private static boolean sDefaultsCaptured;
+    private static long sDefaultDuration;
+    private static TimeInterpolator sDefaultInterpolator;
+
+    private AnimatorPool() {
+    }
+
+    static void setMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize cannot be < 0");
+        }
+        sMaxSize = maxSize;
+        while (sPool.size() > maxSize) {
+            sPool.remove(sPool.size() - 1);
+        }
+    }
+
+    static boolean isEnabled() {
+        return sMaxSize > 0;
+    }
+
+    static Entry obtain(View target) {
+        int size = sPool.size();
+        if (size > 0) {
+            Entry entry = sPool.remove(size - 1);
+            entry.mAnimator.setTarget(target);
+            return entry;
+        }
+        ObjectAnimator animator = ObjectAnimator.ofPropertyValuesHolder(target, NO_HOLDERS);
+        if (!sDefaultsCaptured) {
+            sDefaultDuration = animator.getDuration();
+            sDefaultInterpolator = animator.getInterpolator();
+            sDefaultsCaptured = true;
+        }
+        return new Entry(animator);
+    }
+
+    //package-private, so the tests can put animators in the pool
+    static void recycle(Entry entry) {
+        if (sPool.size() >= sMaxSize || sPool.contains(entry)) {
+            return;
+        }
+        ObjectAnimator animator = entry.mAnimator;
+        //listeners are cloned before being notified, so they can be safely removed from within onAnimationEnd
+        animator.removeAllListeners();
+        animator.removeAllUpdateListeners();
+        //the progress holder stays (replacing it would allocate), it just lets go of the finished animation
+        if (entry.mProgress != null) {
+            entry.mProgress.bind(null);
+        }
+        animator.setTarget(null);
+        animator.setStartDelay(0);
+        animator.setDuration(sDefaultDuration);
+        animator.setInterpolator(sDefaultInterpolator);
+        animator.setRepeatCount(0);
+        animator.setRepeatMode(ValueAnimator.RESTART);
+        sPool.add(entry);
+    }
+
+    /**
+     * A pooled animator, along with the property holder driving its {@link FusedUpdateListener}.
+     * It's also the listener putting the animator back to the pool.
+     */
+    static final class Entry extends AnimatorListenerAdapter {
+
+        final ObjectAnimator mAnimator;
+        private FusedProgressProperty mProgress;
+
+        Entry(ObjectAnimator animator) {
+            mAnimator = animator;
+        }
+
+        /**
+         * Makes the animator set the progress of the listener (API 24+), with the holder set up by
+         * a previous animation if there was one. A holder left without a listener does nothing.
+         */
+        void driveProgress(FusedUpdateListener updateListener) {
+            if (mProgress == null) {
+                mProgress = new FusedProgressProperty(updateListener);
+                mAnimator.setValues(PropertyValuesHolder.ofFloat(mProgress, 0f, 1f));
+            } else {
+                mProgress.bind(updateListener);
+            }
+        }
+
+        /**
+         * Makes the animator go back to the pool as soon as it ends (or gets canceled). Has to be
+         * the last listener added by the library, so all the other ones get notified first.
+         */
+        void recycleOnEnd() {
+            mAnimator.addListener(this);
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            recycle(this);
+        }
+    }
+}
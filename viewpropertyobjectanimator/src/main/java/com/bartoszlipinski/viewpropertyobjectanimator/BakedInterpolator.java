@@ -0,0 +1,81 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.animation.TimeInterpolator;
+import android.view.animation.Interpolator;
+
+import java.util.WeakHashMap;
+
+/**
+ * {@code Interpolator} evaluated from a table of samples of another one, with linear interpolation
+ * between the samples. Meant for curves that are expensive to evaluate (e.g.
+ * {@code PathInterpolator}) and used by many animations at once:
+ * <pre>
+ * Interpolator curve = BakedInterpolator.of(new PathInterpolator(0.4f, 0f, 0.2f, 1f));
+ * </pre>
+ * Tables are cached by the identity of the baked interpolator, so every animation using the same
+ * interpolator instance shares a single table (created on the first call). The baked interpolator
+ * is sampled only inside {@code of()}, so it should always return the same value for the same input.
+ */
+public final class BakedInterpolator implements Interpolator {
+
+    public static final int DEFAULT_SAMPLE_COUNT = 256;
+
+    private static final WeakHashMap<TimeInterpolator, BakedInterpolator> sCache = new WeakHashMap<>();
+
+    private final LookupTable mTable;
+
+    private BakedInterpolator(LookupTable table) {
+        mTable = table;
+    }
+
+    public static BakedInterpolator of(TimeInterpolator interpolator) {
+        return of(interpolator, DEFAULT_SAMPLE_COUNT);
+    }
+
+    /**
+     * @param sampleCount number of samples of the table (at least 2), the more of them the closer
+     *                    the baked curve is to the original one
+     */
+    public static synchronized BakedInterpolator of(TimeInterpolator interpolator, int sampleCount) {
+        if (interpolator instanceof BakedInterpolator) {
+            return (BakedInterpolator) interpolator;
+        }
+        if (sampleCount < 2) {
+            throw new IllegalArgumentException("sampleCount cannot be < 2");
+        }
+        BakedInterpolator baked = sCache.get(interpolator);
+        if (baked == null || baked.mTable.sampleCount() != sampleCount) {
+            baked = new BakedInterpolator(new LookupTable(sample(interpolator, sampleCount)));
+            sCache.put(interpolator, baked);
+        }
+        return baked;
+    }
+
+    private static float[] sample(TimeInterpolator interpolator, int sampleCount) {
+        float[] samples = new float[sampleCount];
+        for (int i = 0; i < sampleCount; i++) {
+            samples[i] = interpolator.getInterpolation(i / (float) (sampleCount - 1));
+        }
+        return samples;
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        return mTable.value(input);
+    }
+}
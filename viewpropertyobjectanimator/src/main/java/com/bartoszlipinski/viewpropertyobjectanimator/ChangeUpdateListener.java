@@ -16,46 +16,80 @@
 package com.bartoszlipinski.viewpropertyobjectanimator;
 
 import android.view.View;
-
-import java.lang.ref.WeakReference;
+import android.view.ViewGroup;
 
 /**
  * Created by Bartosz Lipinski
  * 13.10.15
  */
-abstract class ChangeUpdateListener {
+abstract class ChangeUpdateListener extends ChannelValues<View> {
 
-    protected final WeakReference<View> mView;
+    //effects of a single update, reported to AnimationMetrics
+    static final int UNCHANGED = 0;
+    static final int CHANGED = 1;
+    static final int LAYOUT_REQUESTED = 1 << 1;
+    static final int PADDING_SET = 1 << 2;
+    static final int SCROLLED = 1 << 3;
 
-    public ChangeUpdateListener(View view) {
-        this.mView = new WeakReference<>(view);
+    public ChangeUpdateListener(int channelCount) {
+        super(channelCount);
     }
 
-    public float calculateAnimatedValue(float initialValue, float targetValue, float animationFraction) {
-        return targetValue - ((targetValue - initialValue) * (1.0f - animationFraction));
+    @Override
+    ChangeUpdateListener copy() {
+        return (ChangeUpdateListener) super.copy();
     }
 
-    protected boolean hasView() {
-        return mView.get() != null;
+    /**
+     * Stops animating the channels that are also animated by {@code newer} (of the same family),
+     * which takes them over from the values reached so far.
+     */
+    void yieldTo(View view, ChangeUpdateListener newer) {
+        int conflicts = activeChannels() & newer.animatedChannels();
+        if (conflicts != 0) {
+            drop(conflicts);
+            newer.takeOver(view, conflicts, this);
+        }
     }
 
-    protected static class IntValues {
-        public int mFrom;
-        public int mTo;
+    /**
+     * Whether all the channels animated by {@code source} (of the same family) are animated by
+     * this listener too, so it can move towards their targets (see {@code retarget()}).
+     */
+    boolean canRetarget(ChangeUpdateListener source) {
+        return (source.animatedChannels() & ~activeChannels()) == 0;
+    }
 
-        public IntValues(int from, int to) {
-            this.mFrom = from;
-            this.mTo = to;
-        }
+    /**
+     * Throws if the family can't animate a view with the given layout params. Called when the
+     * values are resolved, and also right when the family is set up if the view already has
+     * its layout params.
+     */
+    void checkLayoutParams(ViewGroup.LayoutParams params) {
     }
 
-    protected static class FloatValues {
-        public float mFrom;
-        public float mTo;
+    /**
+     * Whether the family only changes properties that need neither a layout pass nor a redraw of
+     * the view's content (so the view can be kept on a hardware layer).
+     */
+    boolean isRenderOnly() {
+        return false;
+    }
 
-        public FloatValues(float from, float to) {
-            this.mFrom = from;
-            this.mTo = to;
-        }
+    /**
+     * Whether the family changes the layout of the view on every frame (see
+     * {@link FrameBudgetGovernor}).
+     */
+    boolean changesLayout() {
+        return false;
     }
+
+    /**
+     * Applies the values of all the animated channels for the given fraction. Called by
+     * {@link FusedUpdateListener} on every frame, only when the view is still available.
+     *
+     * @return effects of the update ({@link #UNCHANGED} or {@link #CHANGED} combined with the
+     * view calls that were issued)
+     */
+    abstract int update(View view, float animationFraction);
 }
@@ -0,0 +1,219 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.annotation.SuppressLint;
+import android.content.res.ColorStateList;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.view.View;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+/**
+ * Animates the colors of the {@code View}. Every color is animated as four channels (alpha, red,
+ * green and blue), so the components are interpolated as primitives and nothing gets boxed, like
+ * it does with {@code ArgbEvaluator}. Colors only need the view to be redrawn, never laid out.
+ * <p>
+ * Text color and tint can only be set as a {@code ColorStateList}, so these are cached per color
+ * and only the colors that haven't been applied recently allocate one.
+ */
+class ColorChangeListener extends ChangeUpdateListener {
+
+    private static final int BACKGROUND_COLOR = 0;
+    private static final int TEXT_COLOR = 4;
+    private static final int TINT = 8;
+    private static final int CHANNEL_COUNT = 12;
+
+    private static final int BACKGROUND_CHANNELS = 0xF << BACKGROUND_COLOR;
+    private static final int TEXT_CHANNELS = 0xF << TEXT_COLOR;
+    private static final int TINT_CHANNELS = 0xF << TINT;
+
+    private static final double GAMMA = 2.2;
+    //linear intensities of the 8-bit components, so only the interpolated values need to be encoded back
+    private static final float[] LINEAR = new float[256];
+
+    static {
+        for (int i = 0; i < LINEAR.length; i++) {
+            LINEAR[i] = (float) Math.pow(i / 255.0, GAMMA);
+        }
+    }
+
+    //ColorStateLists of the recently applied text colors and tints, indexed by a hash of the color
+    private static final ColorStateList[] sColorStateLists = new ColorStateList[256];
+
+    private boolean mLinear;
+    //color computed by the last colorChanged() call
+    private int mColor;
+
+    ColorChangeListener() {
+        super(CHANNEL_COUNT);
+    }
+
+    @Override
+    protected ChangeUpdateListener newInstance() {
+        return new ColorChangeListener();
+    }
+
+    public void backgroundColor(int color) {
+        animateColor(BACKGROUND_COLOR, color);
+    }
+
+    public void textColor(int color) {
+        animateColor(TEXT_COLOR, color);
+    }
+
+    public void tint(int color) {
+        animateColor(TINT, color);
+    }
+
+    private void animateColor(int property, int color) {
+        for (int component = 0; component < 4; component++) {
+            animateTo(property + component, component(color, component));
+        }
+    }
+
+    //alpha (0), red, green or blue, the same bits Color.alpha() and the rest read (so the math runs on a plain JVM too)
+    private static int component(int color, int component) {
+        return (color >>> (24 - 8 * component)) & 0xFF;
+    }
+
+    /**
+     * Interpolates the red, green and blue components in linear space (like {@code ArgbEvaluator}
+     * does since API 26), so the colors in between don't get darker. Not used with a spring.
+     */
+    public void linear(boolean linear) {
+        mLinear = linear;
+    }
+
+    @Override
+    void through(float fraction, float value, Easing easing) {
+        throw new IllegalStateException("Keyframes (through()) can't be added to colors, they're animated from the current color of the view straight to the target.");
+    }
+
+    @Override
+    void from(float value) {
+        throw new IllegalStateException("Start values (from()) can't be given for colors, they're always read from the view.");
+    }
+
+    @SuppressLint("NewApi")
+    @Override
+    protected void onResolve(View view) {
+        int channels = animatedChannels();
+        if ((channels & TEXT_CHANNELS) != 0 && !(view instanceof TextView)) {
+            throw new IllegalStateException("Text color can be animated only for a TextView.");
+        }
+        if ((channels & TINT_CHANNELS) != 0) {
+            if (!(view instanceof ImageView)) {
+                throw new IllegalStateException("Tint can be animated only for an ImageView.");
+            }
+            //a transparent tint leaves the image as it is, unless another tint mode was chosen for the view
+            ImageView imageView = (ImageView) view;
+            if (imageView.getImageTintMode() == null) {
+                imageView.setImageTintMode(PorterDuff.Mode.SRC_ATOP);
+            }
+        }
+    }
+
+    @Override
+    protected float current(View view, int channel) {
+        return component(currentColor(view, channel - channel % 4), channel % 4);
+    }
+
+    @SuppressLint("NewApi")
+    private static int currentColor(View view, int property) {
+        switch (property) {
+            case BACKGROUND_COLOR:
+                Drawable background = view.getBackground();
+                //any other background gets replaced with a ColorDrawable
+                return background instanceof ColorDrawable ? ((ColorDrawable) background).getColor() : Color.TRANSPARENT;
+            case TEXT_COLOR:
+                return ((TextView) view).getCurrentTextColor();
+            default:
+                ColorStateList tint = ((ImageView) view).getImageTintList();
+                return tint != null ? tint.getDefaultColor() : Color.TRANSPARENT;
+        }
+    }
+
+    @SuppressLint("NewApi")
+    @Override
+    int update(View view, float animationFraction) {
+        int effects = UNCHANGED;
+        if (colorChanged(BACKGROUND_COLOR, BACKGROUND_CHANNELS, animationFraction)) {
+            //reuses the ColorDrawable of the view, once there is one
+            view.setBackgroundColor(mColor);
+            effects = CHANGED;
+        }
+        if (colorChanged(TEXT_COLOR, TEXT_CHANNELS, animationFraction)) {
+            ((TextView) view).setTextColor(colorStateList(mColor));
+            effects = CHANGED;
+        }
+        if (colorChanged(TINT, TINT_CHANNELS, animationFraction)) {
+            ((ImageView) view).setImageTintList(colorStateList(mColor));
+            effects = CHANGED;
+        }
+        return effects;
+    }
+
+    //ColorStateLists are immutable, so they can be shared by all the animated views
+    private static ColorStateList colorStateList(int color) {
+        int index = (color ^ (color >>> 8) ^ (color >>> 16) ^ (color >>> 24)) & 0xFF;
+        ColorStateList colorStateList = sColorStateLists[index];
+        if (colorStateList == null || colorStateList.getDefaultColor() != color) {
+            colorStateList = ColorStateList.valueOf(color);
+            sColorStateLists[index] = colorStateList;
+        }
+        return colorStateList;
+    }
+
+    /**
+     * Computes the color of the property (into {@link #mColor}) and returns whether it differs
+     * from the one applied in the previous frame.
+     */
+    private boolean colorChanged(int property, int channels, float animationFraction) {
+        //components of a color are always handed over together, the static ones just keep their value
+        if ((activeChannels() & channels) == 0) {
+            return false;
+        }
+        int alpha = component(property, animationFraction, false);
+        int red = component(property + 1, animationFraction, mLinear);
+        int green = component(property + 2, animationFraction, mLinear);
+        int blue = component(property + 3, animationFraction, mLinear);
+        boolean changed = changed(property, alpha);
+        changed |= changed(property + 1, red);
+        changed |= changed(property + 2, green);
+        changed |= changed(property + 3, blue);
+        mColor = alpha << 24 | red << 16 | green << 8 | blue;
+        return changed;
+    }
+
+    private int component(int channel, float animationFraction, boolean linear) {
+        float value;
+        if (linear && !isSpring()) {
+            float from = LINEAR[(int) animatedValue(channel, 0f)];
+            float to = LINEAR[(int) animatedValue(channel, 1f)];
+            float intensity = Math.max(0f, Math.min(1f, calculateAnimatedValue(from, to, animationFraction)));
+            value = (float) Math.pow(intensity, 1 / GAMMA) * 255;
+        } else {
+            value = animatedValue(channel, animationFraction);
+        }
+        //overshooting interpolators and springs can go past the range of a component
+        return Math.max(0, Math.min(255, Math.round(value)));
+    }
+}
@@ -0,0 +1,269 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.constraintlayout.widget.ConstraintLayout;
+
+/**
+ * Animates the parameters of a {@code ConstraintLayout} child (percent dimensions, biases,
+ * dimension ratio and guideline percent), a flat alternative to the percent parameters of
+ * {@link PercentChangeListener}. All the changes made in a frame end up in a single layout request.
+ */
+class ConstraintChangeListener extends ChangeUpdateListener {
+
+    private static final int WIDTH_PERCENT = 0;
+    private static final int HEIGHT_PERCENT = 1;
+    private static final int HORIZONTAL_BIAS = 2;
+    private static final int VERTICAL_BIAS = 3;
+    private static final int DIMENSION_RATIO = 4;
+    private static final int GUIDE_PERCENT = 5;
+    private static final int CHANNEL_COUNT = 6;
+
+    //dimension ratio is a String, so it's only written when it changes by at least that much
+    private static final float RATIO_PRECISION = 1000f;
+    private static final String RATIO_SIDE_WIDTH = "W,";
+    private static final String RATIO_SIDE_HEIGHT = "H,";
+
+    //recently written ratios (direct-mapped by the ratio), so repeated animations don't format them again
+    private static final String[] sRatios = new String[256];
+    private static final int[] sRatioKeys = new int[256];
+    private static final String[] sRatioSides = new String[256];
+
+    private ConstraintLayout.LayoutParams mParams;
+    //RATIO_SIDE_WIDTH or RATIO_SIDE_HEIGHT (constrained side of the ratio), if there was one
+    private String mRatioSide;
+
+    ConstraintChangeListener() {
+        super(CHANNEL_COUNT);
+    }
+
+    @Override
+    protected ChangeUpdateListener newInstance() {
+        return new ConstraintChangeListener();
+    }
+
+    @Override
+    protected void onResolve(View view) {
+        ViewGroup.LayoutParams params = view.getLayoutParams();
+        if (params == null) {
+            throw new IllegalStateException("View does not have layout params yet.");
+        }
+        checkLayoutParams(params);
+        mParams = (ConstraintLayout.LayoutParams) params;
+        //the percents are ignored by ConstraintLayout unless the dimension is in the percent mode
+        if ((animatedChannels() & (1 << WIDTH_PERCENT)) != 0) {
+            if (mParams.width != ConstraintLayout.LayoutParams.MATCH_CONSTRAINT) {
+                throw new IllegalStateException("Animating constraint width percent is available only for views with layout_width=\"0dp\" (MATCH_CONSTRAINT).");
+            }
+            mParams.matchConstraintDefaultWidth = ConstraintLayout.LayoutParams.MATCH_CONSTRAINT_PERCENT;
+        }
+        if ((animatedChannels() & (1 << HEIGHT_PERCENT)) != 0) {
+            if (mParams.height != ConstraintLayout.LayoutParams.MATCH_CONSTRAINT) {
+                throw new IllegalStateException("Animating constraint height percent is available only for views with layout_height=\"0dp\" (MATCH_CONSTRAINT).");
+            }
+            mParams.matchConstraintDefaultHeight = ConstraintLayout.LayoutParams.MATCH_CONSTRAINT_PERCENT;
+        }
+        mRatioSide = "";
+        String ratio = mParams.dimensionRatio;
+        if (ratio != null && ratio.length() > 2 && ratio.charAt(1) == ',') {
+            char side = Character.toUpperCase(ratio.charAt(0));
+            mRatioSide = side == 'W' ? RATIO_SIDE_WIDTH : side == 'H' ? RATIO_SIDE_HEIGHT : ratio.substring(0, 2);
+        }
+    }
+
+    @Override
+    void checkLayoutParams(ViewGroup.LayoutParams params) {
+        try {
+            if (!(params instanceof ConstraintLayout.LayoutParams)) {
+                throw new IllegalStateException("Animating constraint parameters is available only for children of ConstraintLayout.");
+            }
+        } catch (NoClassDefFoundError error) {
+            throw new IllegalStateException("Animating constraint parameters is available only for children of ConstraintLayout (part of the ConstraintLayout AndroidX library).");
+        }
+    }
+
+    @Override
+    protected float current(View view, int channel) {
+        switch (channel) {
+            case WIDTH_PERCENT:
+                return mParams.matchConstraintPercentWidth;
+            case HEIGHT_PERCENT:
+                return mParams.matchConstraintPercentHeight;
+            case HORIZONTAL_BIAS:
+                return mParams.horizontalBias;
+            case VERTICAL_BIAS:
+                return mParams.verticalBias;
+            case DIMENSION_RATIO:
+                return currentRatio(view);
+            default:
+                return mParams.guidePercent;
+        }
+    }
+
+    private float currentRatio(View view) {
+        String ratio = mParams.dimensionRatio;
+        if (ratio != null) {
+            ratio = ratio.substring(mRatioSide.length());
+            try {
+                int colon = ratio.indexOf(':');
+                if (colon == -1) {
+                    return Float.parseFloat(ratio);
+                }
+                float height = Float.parseFloat(ratio.substring(colon + 1));
+                if (height > 0) {
+                    return Float.parseFloat(ratio.substring(0, colon)) / height;
+                }
+            } catch (NumberFormatException ignored) {
+                //invalid ratios are ignored by ConstraintLayout as well
+            }
+        }
+        return view.getHeight() > 0 ? (float) view.getWidth() / view.getHeight() : 1f;
+    }
+
+    @Override
+    protected float minimumVisibleChange(int channel) {
+        //percents and biases are fractions of the available space, the ratio is written with the same precision
+        return 0.001f;
+    }
+
+    public void widthPercent(float widthPercent) {
+        animateTo(WIDTH_PERCENT, widthPercent);
+    }
+
+    public void widthPercentBy(float widthPercentBy) {
+        animateBy(WIDTH_PERCENT, widthPercentBy);
+    }
+
+    public void heightPercent(float heightPercent) {
+        animateTo(HEIGHT_PERCENT, heightPercent);
+    }
+
+    public void heightPercentBy(float heightPercentBy) {
+        animateBy(HEIGHT_PERCENT, heightPercentBy);
+    }
+
+    public void horizontalBias(float horizontalBias) {
+        animateTo(HORIZONTAL_BIAS, horizontalBias);
+    }
+
+    public void horizontalBiasBy(float horizontalBiasBy) {
+        animateBy(HORIZONTAL_BIAS, horizontalBiasBy);
+    }
+
+    public void verticalBias(float verticalBias) {
+        animateTo(VERTICAL_BIAS, verticalBias);
+    }
+
+    public void verticalBiasBy(float verticalBiasBy) {
+        animateBy(VERTICAL_BIAS, verticalBiasBy);
+    }
+
+    public void dimensionRatio(float dimensionRatio) {
+        animateTo(DIMENSION_RATIO, dimensionRatio);
+    }
+
+    public void dimensionRatioBy(float dimensionRatioBy) {
+        animateBy(DIMENSION_RATIO, dimensionRatioBy);
+    }
+
+    public void guidePercent(float guidePercent) {
+        animateTo(GUIDE_PERCENT, guidePercent);
+    }
+
+    public void guidePercentBy(float guidePercentBy) {
+        animateBy(GUIDE_PERCENT, guidePercentBy);
+    }
+
+    @Override
+    boolean changesLayout() {
+        return true;
+    }
+
+    @Override
+    int update(View view, float animationFraction) {
+        boolean changed = false;
+        if (isAnimated(WIDTH_PERCENT)) {
+            float widthPercent = animatedValue(WIDTH_PERCENT, animationFraction);
+            if (mParams.matchConstraintPercentWidth != widthPercent) {
+                mParams.matchConstraintPercentWidth = widthPercent;
+                changed = true;
+            }
+        }
+        if (isAnimated(HEIGHT_PERCENT)) {
+            float heightPercent = animatedValue(HEIGHT_PERCENT, animationFraction);
+            if (mParams.matchConstraintPercentHeight != heightPercent) {
+                mParams.matchConstraintPercentHeight = heightPercent;
+                changed = true;
+            }
+        }
+        if (isAnimated(HORIZONTAL_BIAS)) {
+            float horizontalBias = animatedValue(HORIZONTAL_BIAS, animationFraction);
+            if (mParams.horizontalBias != horizontalBias) {
+                mParams.horizontalBias = horizontalBias;
+                changed = true;
+            }
+        }
+        if (isAnimated(VERTICAL_BIAS)) {
+            float verticalBias = animatedValue(VERTICAL_BIAS, animationFraction);
+            if (mParams.verticalBias != verticalBias) {
+                mParams.verticalBias = verticalBias;
+                changed = true;
+            }
+        }
+        if (isAnimated(DIMENSION_RATIO)) {
+            int ratio = Math.round(animatedValue(DIMENSION_RATIO, animationFraction) * RATIO_PRECISION);
+            if (ratio > 0 && changed(DIMENSION_RATIO, ratio)) {
+                //ConstraintLayout only takes the ratio as a String
+                mParams.dimensionRatio = ratioString(mRatioSide, ratio);
+                changed = true;
+            }
+        }
+        if (isAnimated(GUIDE_PERCENT)) {
+            float guidePercent = animatedValue(GUIDE_PERCENT, animationFraction);
+            if (mParams.guidePercent != guidePercent) {
+                mParams.guidePercent = guidePercent;
+                changed = true;
+            }
+        }
+        if (changed) {
+            mParams.validate();
+            LayoutRequests.request(view);
+            return CHANGED | LAYOUT_REQUESTED;
+        }
+        return UNCHANGED;
+    }
+
+    /**
+     * Formats the ratio (multiplied by {@link #RATIO_PRECISION}), reusing the String written by a
+     * previous frame or animation when possible. Only the first run of an animation allocates.
+     */
+    private static String ratioString(String side, int ratio) {
+        int index = (ratio ^ ratio >>> 8) & 0xFF;
+        String cached = sRatios[index];
+        //the sides are constants, so they're compared by identity
+        if (cached != null && sRatioKeys[index] == ratio && sRatioSides[index] == side) {
+            return cached;
+        }
+        cached = side + ratio / RATIO_PRECISION;
+        sRatios[index] = cached;
+        sRatioKeys[index] = ratio;
+        sRatioSides[index] = side;
+        return cached;
+    }
+}
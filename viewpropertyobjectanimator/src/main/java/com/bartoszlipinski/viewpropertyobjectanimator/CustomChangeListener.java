@@ -0,0 +1,173 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.view.View;
+
+import java.util.Arrays;
+
+/**
+ * Animates the {@link FloatChannel}s and {@link IntChannel}s of the {@code View}. Every listener
+ * numbers the channels in the order they were recorded, animations of the same channel (the same
+ * instance) hand it over to each other by matching the channels themselves.
+ */
+class CustomChangeListener extends ChangeUpdateListener {
+
+    //channels are bits of the masks
+    private static final int MAX_CHANNEL_COUNT = 32;
+    private static final Object[] NO_CHANNELS = new Object[0];
+
+    //FloatChannels and IntChannels indexed by their channel, never modified (a new array is created for every
+    //recorded channel), so it can be shared between copies on any thread
+    private Object[] mChannels = NO_CHANNELS;
+
+    CustomChangeListener() {
+        this(0);
+    }
+
+    private CustomChangeListener(int channelCount) {
+        super(channelCount);
+    }
+
+    @Override
+    protected ChangeUpdateListener newInstance() {
+        return new CustomChangeListener(channelCount());
+    }
+
+    @Override
+    CustomChangeListener copy() {
+        CustomChangeListener copy = (CustomChangeListener) super.copy();
+        copy.mChannels = mChannels;
+        return copy;
+    }
+
+    public void to(FloatChannel<?> channel, float toValue) {
+        animateTo(register(channel), toValue);
+    }
+
+    public void by(FloatChannel<?> channel, float byValue) {
+        animateBy(register(channel), byValue);
+    }
+
+    public void to(IntChannel<?> channel, int toValue) {
+        animateTo(register(channel), toValue);
+    }
+
+    public void by(IntChannel<?> channel, int byValue) {
+        animateBy(register(channel), byValue);
+    }
+
+    private int register(Object customChannel) {
+        int channel = indexOf(customChannel);
+        if (channel != -1) {
+            return channel;
+        }
+        channel = mChannels.length;
+        if (channel == MAX_CHANNEL_COUNT) {
+            throw new IllegalStateException("A single animation can animate at most " + MAX_CHANNEL_COUNT
+                    + " custom properties, cannot add \"" + customChannel + "\".");
+        }
+        Object[] channels = Arrays.copyOf(mChannels, channel + 1);
+        channels[channel] = customChannel;
+        mChannels = channels;
+        growTo(channels.length);
+        return channel;
+    }
+
+    private int indexOf(Object customChannel) {
+        for (int channel = 0; channel < mChannels.length; channel++) {
+            if (mChannels[channel] == customChannel) {
+                return channel;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Whether the channels both listeners have in common are stored under the same indices (e.g.
+     * when they were recorded by the same code), so they can be handed over as they are.
+     */
+    private boolean isAlignedWith(CustomChangeListener other) {
+        if (mChannels == other.mChannels) {
+            return true;
+        }
+        int count = Math.min(mChannels.length, other.mChannels.length);
+        for (int channel = 0; channel < count; channel++) {
+            if (mChannels[channel] != other.mChannels[channel]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    void yieldTo(View view, ChangeUpdateListener newer) {
+        CustomChangeListener other = (CustomChangeListener) newer;
+        if (isAlignedWith(other)) {
+            super.yieldTo(view, newer);
+            return;
+        }
+        for (int channels = activeChannels(); channels != 0; channels &= channels - 1) {
+            int channel = Integer.numberOfTrailingZeros(channels);
+            int theirs = other.indexOf(mChannels[channel]);
+            if (theirs != -1 && (other.animatedChannels() & (1 << theirs)) != 0) {
+                drop(1 << channel);
+                other.takeOver(view, theirs, this, channel);
+            }
+        }
+    }
+
+    @Override
+    boolean canRetarget(ChangeUpdateListener source) {
+        return isAlignedWith((CustomChangeListener) source) && super.canRetarget(source);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected float current(View view, int channel) {
+        Object customChannel = mChannels[channel];
+        return customChannel instanceof FloatChannel
+                ? ((FloatChannel<View>) customChannel).get(view)
+                : ((IntChannel<View>) customChannel).get(view);
+    }
+
+    @Override
+    protected float minimumVisibleChange(int channel) {
+        Object customChannel = mChannels[channel];
+        return customChannel instanceof FloatChannel ? ((FloatChannel<?>) customChannel).getMinimumVisibleChange() : 1f;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    int update(View view, float animationFraction) {
+        int effects = UNCHANGED;
+        for (int channels = activeChannels(); channels != 0; channels &= channels - 1) {
+            int channel = Integer.numberOfTrailingZeros(channels);
+            Object customChannel = mChannels[channel];
+            if (customChannel instanceof FloatChannel) {
+                ((FloatChannel<View>) customChannel).set(view, animatedValue(channel, animationFraction));
+                effects = CHANGED;
+            } else {
+                int value = (int) animatedValue(channel, animationFraction);
+                if (changed(channel, value)) {
+                    ((IntChannel<View>) customChannel).set(view, value);
+                    effects = CHANGED;
+                }
+            }
+        }
+        return effects;
+    }
+}
@@ -15,51 +15,70 @@
  */
 package com.bartoszlipinski.viewpropertyobjectanimator;
 
-import android.animation.ValueAnimator;
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.annotation.SuppressLint;
+import android.os.Build;
 import android.view.View;
 import android.view.ViewGroup;
 
+import java.lang.ref.WeakReference;
+
 /**
  * Created by Bartosz Lipinski
  * 13.10.15
  */
-class DimensionChangeListener extends ChangeUpdateListener implements ValueAnimator.AnimatorUpdateListener {
+class DimensionChangeListener extends ChangeUpdateListener {
+
+    private static final int WIDTH = 0;
+    private static final int HEIGHT = 1;
+    private static final int CHANNEL_COUNT = 2;
 
-    private final ViewGroup.LayoutParams mParams;
+    private ViewGroup.LayoutParams mParams;
 
-    private IntValues mWidth;
-    private IntValues mHeight;
+    private boolean mApproximate;
+    private ApproximationListener mApproximationListener;
+
+    DimensionChangeListener() {
+        super(CHANNEL_COUNT);
+    }
+
+    @Override
+    protected ChangeUpdateListener newInstance() {
+        return new DimensionChangeListener();
+    }
 
-    DimensionChangeListener(View view) {
-        super(view);
+    @Override
+    protected void onResolve(View view) {
         mParams = view.getLayoutParams();
         if (mParams == null) {
             throw new IllegalStateException("View does not have layout params yet.");
         }
     }
 
-    private int currentWidth() {
-        return mParams.width > 0 ? mParams.width : hasView() ? mView.get().getWidth() : 0;
-    }
-
-    private int currentHeight() {
-        return mParams.height > 0 ? mParams.height : hasView() ? mView.get().getHeight() : 0;
+    @Override
+    protected float current(View view, int channel) {
+        //the approximation scales the measured size, so it starts from it even if the parent constrained the params
+        if (channel == WIDTH) {
+            return mParams.width > 0 && !(mApproximate && view.getWidth() > 0) ? mParams.width : view.getWidth();
+        }
+        return mParams.height > 0 && !(mApproximate && view.getHeight() > 0) ? mParams.height : view.getHeight();
     }
 
     public void width(int width) {
-        mWidth = new IntValues(currentWidth(), width);
+        animateTo(WIDTH, width);
     }
 
     public void widthBy(int widthBy) {
-        mWidth = new IntValues(currentWidth(), currentWidth() + widthBy);
+        animateBy(WIDTH, widthBy);
     }
 
     public void height(int height) {
-        mHeight = new IntValues(currentHeight(), height);
+        animateTo(HEIGHT, height);
     }
 
     public void heightBy(int heightBy) {
-        mHeight = new IntValues(currentHeight(), currentHeight() + heightBy);
+        animateBy(HEIGHT, heightBy);
     }
 
     public void size(int size){
@@ -72,17 +91,186 @@ class DimensionChangeListener extends ChangeUpdateListener implements ValueAnima
         heightBy(sizeBy);
     }
 
+    public void approximate(boolean approximate) {
+        mApproximate = approximate;
+    }
+
+    /**
+     * Returns a listener that has to be attached to the animator when the dimensions are only
+     * approximated with scale (see {@link ViewPropertyObjectAnimator#withSizeApproximation()}).
+     *
+     * @param translates whether the same animation moves the view, so its translation can't be
+     *                   used to anchor the scale
+     */
+    Animator.AnimatorListener approximationListener(WeakReference<View> view, boolean translates) {
+        if (!mApproximate) {
+            return null;
+        }
+        if (mApproximationListener == null) {
+            mApproximationListener = new ApproximationListener(view);
+        }
+        mApproximationListener.mTranslates = translates;
+        return mApproximationListener;
+    }
+
+    @Override
+    boolean isRenderOnly() {
+        return mApproximationListener != null && mApproximationListener.mActive;
+    }
+
+    @Override
+    boolean changesLayout() {
+        //the approximated size is committed only once
+        return !mApproximate;
+    }
+
     @Override
-    public void onAnimationUpdate(ValueAnimator valueAnimator) {
-        if (hasView()) {
-            float animatedFraction = valueAnimator.getAnimatedFraction();
-            if (mWidth != null) {
-                mParams.width = (int) calculateAnimatedValue(mWidth.mFrom, mWidth.mTo, animatedFraction);
+    int update(View view, float animationFraction) {
+        if (mApproximationListener != null && mApproximationListener.mActive) {
+            mApproximationListener.scale(view, animationFraction);
+            return CHANGED;
+        }
+        if (applyParams(animationFraction)) {
+            LayoutRequests.request(view);
+            return CHANGED | LAYOUT_REQUESTED;
+        }
+        return UNCHANGED;
+    }
+
+    private boolean applyParams(float animationFraction) {
+        boolean changed = false;
+        if (isAnimated(WIDTH)) {
+            int width = (int) animatedValue(WIDTH, animationFraction);
+            if (changed(WIDTH, width)) {
+                mParams.width = width;
+                changed = true;
+            }
+        }
+        if (isAnimated(HEIGHT)) {
+            int height = (int) animatedValue(HEIGHT, animationFraction);
+            if (changed(HEIGHT, height)) {
+                mParams.height = height;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Animates the visual size with scale (anchored to the top-left corner) and commits the real
+     * {@code LayoutParams} only once, when the animation ends or gets canceled.
+     * <p>
+     * The scale is anchored by moving the pivot to the corner. Below API 28 a pivot set once stays
+     * explicitly set (it wouldn't follow the size of the view any more), so a view with the default
+     * pivot keeps it and the scale is anchored with translation instead.
+     */
+    private class ApproximationListener extends AnimatorListenerAdapter {
+        private final WeakReference<View> mView;
+        private boolean mActive;
+        private float mLastFraction;
+        private int mLayoutWidth;
+        private int mLayoutHeight;
+        private float mScaleX;
+        private float mScaleY;
+        private float mPivotX;
+        private float mPivotY;
+        private boolean mPivotSet;
+        //whether the pivot is moved to the corner, otherwise the translation anchors the scale
+        private boolean mPinPivot;
+        private float mTranslationX;
+        private float mTranslationY;
+        private boolean mTranslates;
+
+        ApproximationListener(WeakReference<View> view) {
+            mView = view;
+        }
+
+        @Override
+        public void onAnimationStart(Animator animation) {
+            mLastFraction = 0;
+            View view = mView.get();
+            if (view == null) {
+                return;
+            }
+            mLayoutWidth = view.getWidth();
+            mLayoutHeight = view.getHeight();
+            //a view that hasn't been laid out yet has nothing to scale, so it's animated with layout passes
+            mActive = mLayoutWidth > 0 && mLayoutHeight > 0;
+            if (!mActive) {
+                return;
             }
-            if (mHeight != null) {
-                mParams.height = (int) calculateAnimatedValue(mHeight.mFrom, mHeight.mTo, animatedFraction);
+            mPivotX = view.getPivotX();
+            mPivotY = view.getPivotY();
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+                mPivotSet = view.isPivotSet();
+                mPinPivot = true;
+            } else {
+                mPivotSet = mPivotX != mLayoutWidth / 2f || mPivotY != mLayoutHeight / 2f;
+                mPinPivot = mPivotSet;
+                //a view moved by the same animation can't be anchored with translation, so it's animated with layout passes
+                mActive = mPinPivot || !mTranslates;
+                if (!mActive) {
+                    return;
+                }
+            }
+            mScaleX = view.getScaleX();
+            mScaleY = view.getScaleY();
+            if (mPinPivot) {
+                view.setPivotX(0);
+                view.setPivotY(0);
+            } else {
+                mTranslationX = view.getTranslationX();
+                mTranslationY = view.getTranslationY();
+            }
+        }
+
+        void scale(View view, float animationFraction) {
+            mLastFraction = animationFraction;
+            if (isAnimated(WIDTH)) {
+                float scaleX = mScaleX * animatedValue(WIDTH, animationFraction) / mLayoutWidth;
+                view.setScaleX(scaleX);
+                if (!mPinPivot) {
+                    //keeps the left edge where it was, scaling around the pivot moves it by pivot * scale change
+                    view.setTranslationX(mTranslationX + mPivotX * (scaleX - mScaleX));
+                }
+            }
+            if (isAnimated(HEIGHT)) {
+                float scaleY = mScaleY * animatedValue(HEIGHT, animationFraction) / mLayoutHeight;
+                view.setScaleY(scaleY);
+                if (!mPinPivot) {
+                    view.setTranslationY(mTranslationY + mPivotY * (scaleY - mScaleY));
+                }
+            }
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            //onAnimationEnd is also dispatched after onAnimationCancel, so the params are committed exactly once
+            if (!mActive) {
+                return;
+            }
+            mActive = false;
+            View view = mView.get();
+            if (view != null) {
+                view.setScaleX(mScaleX);
+                view.setScaleY(mScaleY);
+                restoreAnchor(view);
+                applyParams(mLastFraction);
+                LayoutRequests.request(view);
+            }
+        }
+
+        @SuppressLint("NewApi")
+        private void restoreAnchor(View view) {
+            if (!mPinPivot) {
+                view.setTranslationX(mTranslationX);
+                view.setTranslationY(mTranslationY);
+            } else if (mPivotSet) {
+                view.setPivotX(mPivotX);
+                view.setPivotY(mPivotY);
+            } else {
+                view.resetPivot();
             }
-            mView.get().requestLayout();
         }
     }
 
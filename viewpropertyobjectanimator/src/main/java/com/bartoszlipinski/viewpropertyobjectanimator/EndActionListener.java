@@ -0,0 +1,52 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+
+/**
+ * Runs an end action (see {@link ViewPropertyObjectAnimator#withEndAction(Runnable)}) unless the
+ * animation gets canceled. Builders and templates keep just the actions, every animator gets its
+ * own listener, so canceling one of them doesn't affect the others.
+ */
+class EndActionListener extends AnimatorListenerAdapter {
+
+    private final Runnable mAction;
+    private boolean mCanceled;
+
+    EndActionListener(Runnable action) {
+        mAction = action;
+    }
+
+    @Override
+    public void onAnimationStart(Animator animation) {
+        //the same animator can be started again (e.g. by an AnimationToggle)
+        mCanceled = false;
+    }
+
+    @Override
+    public void onAnimationCancel(Animator animation) {
+        mCanceled = true;
+    }
+
+    @Override
+    public void onAnimationEnd(Animator animation) {
+        if (!mCanceled) {
+            mAction.run();
+        }
+    }
+}
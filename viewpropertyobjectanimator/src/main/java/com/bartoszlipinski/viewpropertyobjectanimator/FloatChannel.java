@@ -0,0 +1,68 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.view.View;
+
+/**
+ * Custom {@code float} property of a view, read and written with primitive calls (unlike
+ * {@code ObjectAnimator.ofFloat(view, "progress", 1f)}, which uses reflection and boxes the value
+ * on every frame), e.g.:
+ * <pre>
+ * static final FloatChannel&lt;ProgressView&gt; PROGRESS = new FloatChannel&lt;ProgressView&gt;("progress") {
+ *     public float get(ProgressView view) {
+ *         return view.getProgress();
+ *     }
+ *
+ *     public void set(ProgressView view, float value) {
+ *         view.setProgress(value);
+ *     }
+ * };
+ *
+ * ViewPropertyObjectAnimator.animate(progressView).property(PROGRESS, 1f).alpha(1f).start();
+ * </pre>
+ * A running animation of a channel is taken over by the following animations of the same instance,
+ * so channels should be kept in static fields. A single animation can animate up to 32 of them.
+ */
+public abstract class FloatChannel<V extends View> {
+
+    private final String mName;
+
+    protected FloatChannel(String name) {
+        mName = name;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public abstract float get(V view);
+
+    public abstract void set(V view, float value);
+
+    /**
+     * Smallest change of the value that makes a visible difference. A spring comes to rest once
+     * it moves less than that.
+     */
+    public float getMinimumVisibleChange() {
+        return 0.001f;
+    }
+
+    @Override
+    public String toString() {
+        return mName;
+    }
+}
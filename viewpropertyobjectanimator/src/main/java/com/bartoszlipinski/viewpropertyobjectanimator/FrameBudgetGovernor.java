@@ -0,0 +1,222 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.os.Build;
+import android.view.Choreographer;
+import android.view.View;
+
+/**
+ * Keeps an eye on the frame durations while animations changing the layout (margins, dimensions,
+ * percent and constraint parameters) run and, when frames take longer than the budget, makes these animations
+ * cheaper, one level at a time:
+ * <ol>
+ * <li>{@link #LEVEL_THROTTLE} - layout properties are applied every other frame,</li>
+ * <li>{@link #LEVEL_CAP} - layout properties of an animation starting while the maximum number of
+ * them already runs are moved to their end values right away,</li>
+ * <li>{@link #LEVEL_JUMP} - layout properties of every starting animation are moved to their end
+ * values right away.</li>
+ * </ol>
+ * The level goes back down once the frames fit in the budget again. All the other properties
+ * keep animating as usual. Springs and {@link AnimationToggle}s are not affected.
+ * <p>
+ * Disabled by default, configured (and used) on the UI thread only. Frames can be observed only
+ * from API 16, below it the governor can't be enabled.
+ */
+public final class FrameBudgetGovernor {
+
+    public static final int LEVEL_NONE = 0;
+    public static final int LEVEL_THROTTLE = 1;
+    public static final int LEVEL_CAP = 2;
+    public static final int LEVEL_JUMP = 3;
+
+    //frames spent over (or within) the budget before the level changes
+    private static final int HYSTERESIS_FRAMES = 8;
+
+    /**
+     * Gets notified about the decisions of the governor, e.g. to log them.
+     */
+    public interface Listener {
+        void onLevelChanged(int level, long averageFrameNanos);
+
+        /**
+         * Called when the layout properties of an animation starting on the view are moved to
+         * their end values right away (at {@link #LEVEL_CAP} or {@link #LEVEL_JUMP}).
+         */
+        void onLayoutJumped(View view, int level);
+    }
+
+    private static long sFrameBudgetNanos = 0;
+    private static int sMaxLayoutAnimations = 4;
+    private static Listener sListener;
+
+    private static int sLevel = LEVEL_NONE;
+    private static int sLayoutAnimations = 0;
+    private static boolean sObserving;
+    private static long sLastFrameTimeNanos;
+    private static long sAverageFrameNanos;
+    private static int sFramesOverBudget;
+    private static int sFramesUnderBudget;
+    private static boolean sSkipLayoutFrame;
+    //created once frames are observed, Choreographer isn't there below API 16
+    private static Choreographer.FrameCallback sFrameCallback;
+
+    private FrameBudgetGovernor() {
+    }
+
+    /**
+     * @param frameBudgetNanos longest acceptable frame duration, usually the refresh period of the
+     *                         display, e.g. {@code 16_666_667} at 60Hz; ignored below API 16
+     */
+    public static void enable(long frameBudgetNanos) {
+        if (frameBudgetNanos <= 0) {
+            throw new IllegalArgumentException("frameBudgetNanos has to be > 0");
+        }
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            return;
+        }
+        sFrameBudgetNanos = frameBudgetNanos;
+        observe();
+    }
+
+    public static void disable() {
+        sFrameBudgetNanos = 0;
+        setLevel(LEVEL_NONE);
+    }
+
+    /**
+     * Sets how many animations changing the layout can run at once at {@link #LEVEL_CAP}
+     * (default {@code 4}).
+     */
+    public static void setMaxLayoutAnimations(int maxLayoutAnimations) {
+        if (maxLayoutAnimations < 0) {
+            throw new IllegalArgumentException("maxLayoutAnimations cannot be < 0");
+        }
+        sMaxLayoutAnimations = maxLayoutAnimations;
+    }
+
+    public static void setListener(Listener listener) {
+        sListener = listener;
+    }
+
+    public static int getLevel() {
+        return sLevel;
+    }
+
+    static boolean isEnabled() {
+        return sFrameBudgetNanos != 0;
+    }
+
+    /**
+     * Whether the layout properties should be left as they are in the current frame.
+     */
+    static boolean skipsLayoutFrame() {
+        return sSkipLayoutFrame;
+    }
+
+    /**
+     * Called when an animation changing the layout starts.
+     *
+     * @return {@code false} if its layout properties have to be moved to their end values right
+     * away (the animation isn't counted as running then)
+     */
+    static boolean layoutAnimationStarted(View view) {
+        if (sLevel == LEVEL_JUMP || (sLevel == LEVEL_CAP && sLayoutAnimations >= sMaxLayoutAnimations)) {
+            if (sListener != null) {
+                sListener.onLayoutJumped(view, sLevel);
+            }
+            return false;
+        }
+        sLayoutAnimations++;
+        observe();
+        return true;
+    }
+
+    static void layoutAnimationEnded() {
+        sLayoutAnimations--;
+    }
+
+    private static void observe() {
+        //frames are observed only while there's something to govern
+        if (!sObserving && sFrameBudgetNanos > 0 && sLayoutAnimations > 0) {
+            sObserving = true;
+            sLastFrameTimeNanos = 0;
+            if (sFrameCallback == null) {
+                sFrameCallback = new Choreographer.FrameCallback() {
+                    @Override
+                    public void doFrame(long frameTimeNanos) {
+                        frame(frameTimeNanos);
+                    }
+                };
+            }
+            Choreographer.getInstance().postFrameCallback(sFrameCallback);
+        }
+    }
+
+    private static void frame(long frameTimeNanos) {
+        if (sFrameBudgetNanos == 0 || sLayoutAnimations == 0) {
+            sObserving = false;
+            setLevel(LEVEL_NONE);
+            return;
+        }
+        if (sLastFrameTimeNanos != 0) {
+            //a frame over the budget delays the next vsync, so it shows up in the interval between frames
+            long frameNanos = frameTimeNanos - sLastFrameTimeNanos;
+            sAverageFrameNanos = sAverageFrameNanos == 0
+                    ? frameNanos
+                    : sAverageFrameNanos + (frameNanos - sAverageFrameNanos) / HYSTERESIS_FRAMES;
+            adjustLevel();
+        }
+        sLastFrameTimeNanos = frameTimeNanos;
+        sSkipLayoutFrame = sLevel >= LEVEL_THROTTLE && !sSkipLayoutFrame;
+        Choreographer.getInstance().postFrameCallback(sFrameCallback);
+    }
+
+    private static void adjustLevel() {
+        //intervals are multiples of the vsync period (give or take some jitter), so frames on time average out
+        //at about the budget: it's exceeded once roughly every 4th frame misses the vsync, and the frames fit in
+        //it again once at most every 8th one does
+        if (sAverageFrameNanos > sFrameBudgetNanos * 5 / 4) {
+            sFramesUnderBudget = 0;
+            if (++sFramesOverBudget >= HYSTERESIS_FRAMES && sLevel < LEVEL_JUMP) {
+                setLevel(sLevel + 1);
+            }
+        } else if (sAverageFrameNanos <= sFrameBudgetNanos * 9 / 8) {
+            sFramesOverBudget = 0;
+            if (++sFramesUnderBudget >= HYSTERESIS_FRAMES && sLevel > LEVEL_NONE) {
+                setLevel(sLevel - 1);
+            }
+        } else {
+            sFramesOverBudget = 0;
+            sFramesUnderBudget = 0;
+        }
+    }
+
+    private static void setLevel(int level) {
+        sFramesOverBudget = 0;
+        sFramesUnderBudget = 0;
+        if (sLevel != level) {
+            sLevel = level;
+            if (sListener != null) {
+                sListener.onLevelChanged(level, sAverageFrameNanos);
+            }
+        }
+        if (level == LEVEL_NONE) {
+            sSkipLayoutFrame = false;
+            sAverageFrameNanos = 0;
+        }
+    }
+}
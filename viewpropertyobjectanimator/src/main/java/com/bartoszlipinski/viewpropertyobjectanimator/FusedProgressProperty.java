@@ -0,0 +1,58 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.annotation.SuppressLint;
+import android.util.FloatProperty;
+import android.view.View;
+
+/**
+ * Progress ({@code 0} to {@code 1}) of a {@link FusedUpdateListener}, exposed as a property of the
+ * animated view. Set by the animator through the primitive {@code setValue()} (API 24+), right
+ * when it evaluates its values, so seeking the animator (e.g. within an {@code AnimatorSet})
+ * applies the properties too and there's no update listener dispatch per frame.
+ */
+@SuppressLint("NewApi")
+class FusedProgressProperty extends FloatProperty<View> {
+
+    //replaced when the animator gets pooled and reused (see AnimatorPool)
+    private FusedUpdateListener mUpdateListener;
+    private float mProgress;
+
+    FusedProgressProperty(FusedUpdateListener updateListener) {
+        super("progress");
+        mUpdateListener = updateListener;
+    }
+
+    void bind(FusedUpdateListener updateListener) {
+        mUpdateListener = updateListener;
+        mProgress = 0;
+    }
+
+    @Override
+    public void setValue(View view, float progress) {
+        mProgress = progress;
+        if (mUpdateListener != null) {
+            mUpdateListener.update(progress);
+        }
+    }
+
+    @Override
+    public Float get(View view) {
+        //only read when the animator sets up its start and end values
+        return mProgress;
+    }
+}
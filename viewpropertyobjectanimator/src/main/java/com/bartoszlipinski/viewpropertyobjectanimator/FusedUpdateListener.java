@@ -0,0 +1,309 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
+import android.view.View;
+import android.view.animation.AnimationUtils;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Single update listener driving all the {@link ChangeUpdateListener}s of an animation, so the
+ * animated fraction is read once per frame and there's only one listener dispatch per animator.
+ * On API 24+ tweens don't use it as a listener, the animator sets their progress through a
+ * {@link FusedProgressProperty} instead.
+ * <p>
+ * It's also the first listener of its animator, reading the start values and keeping track of the
+ * animation in {@link RunningAnimations} (so there's no separate tracker per animator).
+ */
+class FusedUpdateListener extends AnimatorListenerAdapter implements ValueAnimator.AnimatorUpdateListener {
+
+    private final WeakReference<View> mView;
+    private final ChangeUpdateListener[] mListeners;
+    private final int mListenersCount;
+    private AnimationMetrics mMetrics;
+    private boolean mSpring;
+    private long mLastFrameTime;
+    private boolean mSettled;
+    private boolean mKeepStartValues;
+    private boolean mResolved;
+    //set when the values got resolved by a seek before the animation started
+    private boolean mResolvedBeforeStart;
+    //counted by FrameBudgetGovernor as a running animation changing the layout
+    private boolean mGoverned;
+
+    /**
+     * @param listeners families of the animation ({@code null} for the ones that aren't animated),
+     *                  the array is kept (and reordered), so it can't be used by the caller anymore
+     */
+    FusedUpdateListener(WeakReference<View> view, ChangeUpdateListener... listeners) {
+        mView = view;
+        int count = 0;
+        for (ChangeUpdateListener listener : listeners) {
+            if (listener != null) {
+                listeners[count++] = listener;
+            }
+        }
+        mListeners = listeners;
+        mListenersCount = count;
+    }
+
+    /**
+     * Start values are read from the view only when the animation starts for the first time, so
+     * a reversed animation goes back to where it originally started.
+     */
+    void keepStartValues() {
+        mKeepStartValues = true;
+    }
+
+    /**
+     * Called (by {@link RunningAnimations}) when the animation starts. Reads the start values from the view and animates all
+     * the properties again (including the ones taken over by another animation before).
+     */
+    void start(View view) {
+        if (mResolvedBeforeStart) {
+            //the view already shows the values of the seek, so they can't be read again
+            mResolvedBeforeStart = false;
+        } else if (!mResolved || !mKeepStartValues) {
+            resolve(view);
+        }
+        activate();
+    }
+
+    private void resolve(View view) {
+        for (int i = 0; i < mListenersCount; i++) {
+            mListeners[i].resolve(view);
+        }
+        mResolved = true;
+    }
+
+    /**
+     * Lets {@link FrameBudgetGovernor} know about the animation (once it took over its channels),
+     * if it changes the layout and the governor is enabled. Springs and reversible animations are
+     * never governed.
+     */
+    void govern(View view) {
+        if (!FrameBudgetGovernor.isEnabled() || mSpring || mKeepStartValues || !changesLayout()) {
+            return;
+        }
+        if (FrameBudgetGovernor.layoutAnimationStarted(view)) {
+            mGoverned = true;
+        } else {
+            jumpLayoutToEnd(view);
+        }
+    }
+
+    void stopGoverning() {
+        if (mGoverned) {
+            mGoverned = false;
+            FrameBudgetGovernor.layoutAnimationEnded();
+        }
+    }
+
+    private boolean changesLayout() {
+        for (int i = 0; i < mListenersCount; i++) {
+            if (mListeners[i].changesLayout() && mListeners[i].activeChannels() != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void jumpLayoutToEnd(View view) {
+        for (int i = 0; i < mListenersCount; i++) {
+            ChangeUpdateListener listener = mListeners[i];
+            if (listener.changesLayout() && listener.activeChannels() != 0) {
+                listener.update(view, 1f);
+                listener.drop(listener.activeChannels());
+            }
+        }
+    }
+
+    View view() {
+        return mView.get();
+    }
+
+    void activate() {
+        for (int i = 0; i < mListenersCount; i++) {
+            mListeners[i].activate();
+        }
+        mLastFrameTime = 0;
+        mSettled = false;
+    }
+
+    /**
+     * Drives all the properties with the given spring (or with the animation fraction, when
+     * {@code null}). The animator then runs until the spring comes to rest, regardless of its
+     * duration.
+     */
+    void spring(Spring spring) {
+        mSpring = spring != null;
+        for (int i = 0; i < mListenersCount; i++) {
+            mListeners[i].spring(spring);
+        }
+    }
+
+    boolean isSpring() {
+        return mSpring;
+    }
+
+    /**
+     * Stops animating all the channels that are also animated by {@code newer}, which starts from
+     * the values this animation has reached so far.
+     */
+    void yieldTo(FusedUpdateListener newer, View view) {
+        for (int i = 0; i < mListenersCount; i++) {
+            ChangeUpdateListener mine = mListeners[i];
+            ChangeUpdateListener theirs = newer.find(mine.getClass());
+            if (theirs != null) {
+                mine.yieldTo(view, theirs);
+            }
+        }
+    }
+
+    /**
+     * Moves this spring towards the targets of {@code newer}, if it animates all of its
+     * properties (so {@code newer} doesn't need to be started at all).
+     *
+     * @return whether the targets were taken over
+     */
+    boolean retarget(FusedUpdateListener newer, View view) {
+        if (!mSpring || mSettled) {
+            return false;
+        }
+        for (int i = 0; i < newer.mListenersCount; i++) {
+            ChangeUpdateListener theirs = newer.mListeners[i];
+            ChangeUpdateListener mine = find(theirs.getClass());
+            if (mine == null || !mine.canRetarget(theirs)) {
+                return false;
+            }
+        }
+        for (int i = 0; i < newer.mListenersCount; i++) {
+            ChangeUpdateListener theirs = newer.mListeners[i];
+            find(theirs.getClass()).retarget(view, theirs);
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T extends ChangeUpdateListener> T family(Class<T> family) {
+        return (T) find(family);
+    }
+
+    private ChangeUpdateListener find(Class<? extends ChangeUpdateListener> family) {
+        for (int i = 0; i < mListenersCount; i++) {
+            if (mListeners[i].getClass() == family) {
+                return mListeners[i];
+            }
+        }
+        return null;
+    }
+
+    void setMetrics(AnimationMetrics metrics) {
+        mMetrics = metrics;
+    }
+
+    /**
+     * Whether there's anything to animate and all of it can be animated without layout passes.
+     */
+    boolean isRenderOnly() {
+        boolean animated = false;
+        for (int i = 0; i < mListenersCount; i++) {
+            if (mListeners[i].activeChannels() != 0) {
+                if (!mListeners[i].isRenderOnly()) {
+                    return false;
+                }
+                animated = true;
+            }
+        }
+        return animated;
+    }
+
+    boolean isEmpty() {
+        return mListenersCount == 0;
+    }
+
+    @Override
+    public void onAnimationStart(Animator animation) {
+        RunningAnimations.started(this);
+    }
+
+    @Override
+    public void onAnimationEnd(Animator animation) {
+        RunningAnimations.ended(this);
+    }
+
+    @Override
+    public void onAnimationUpdate(ValueAnimator valueAnimator) {
+        if (!mSpring) {
+            update(valueAnimator.getAnimatedFraction());
+            return;
+        }
+        if (mSettled) {
+            //ending the animator below dispatches one more update
+            return;
+        }
+        long frameTime = AnimationUtils.currentAnimationTimeMillis();
+        float deltaSeconds = mLastFrameTime == 0 ? 0 : (frameTime - mLastFrameTime) / 1000f;
+        mLastFrameTime = frameTime;
+        boolean moving = false;
+        for (int i = 0; i < mListenersCount; i++) {
+            moving |= mListeners[i].step(deltaSeconds);
+        }
+        update(1f);
+        if (!moving && deltaSeconds > 0) {
+            mSettled = true;
+            valueAnimator.end();
+        }
+    }
+
+    void update(float animatedFraction) {
+        View view = mView.get();
+        if (view == null) {
+            return;
+        }
+        if (!mResolved) {
+            //the animator is seeked before it started (setCurrentPlayTime(), a seek of an AnimatorSet, etc.)
+            resolve(view);
+            mResolvedBeforeStart = true;
+        }
+        //the first and the last frame are always applied
+        boolean skipLayout = mGoverned && FrameBudgetGovernor.skipsLayoutFrame()
+                && animatedFraction > 0 && animatedFraction < 1;
+        if (mMetrics == null) {
+            for (int i = 0; i < mListenersCount; i++) {
+                if (!skipLayout || !mListeners[i].changesLayout()) {
+                    mListeners[i].update(view, animatedFraction);
+                }
+            }
+            return;
+        }
+        long startTime = System.nanoTime();
+        int frameEffects = ChangeUpdateListener.UNCHANGED;
+        for (int i = 0; i < mListenersCount; i++) {
+            if (skipLayout && mListeners[i].changesLayout()) {
+                continue;
+            }
+            int effects = mListeners[i].update(view, animatedFraction);
+            mMetrics.count(effects);
+            frameEffects |= effects;
+        }
+        mMetrics.frame(frameEffects, System.nanoTime() - startTime);
+    }
+}
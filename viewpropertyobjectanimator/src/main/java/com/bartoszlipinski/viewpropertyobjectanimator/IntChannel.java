@@ -0,0 +1,44 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.view.View;
+
+/**
+ * Custom {@code int} property of a view, read and written with primitive calls. The setter is
+ * called only when the value changes. See {@link FloatChannel}.
+ */
+public abstract class IntChannel<V extends View> {
+
+    private final String mName;
+
+    protected IntChannel(String name) {
+        mName = name;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public abstract int get(V view);
+
+    public abstract void set(V view, int value);
+
+    @Override
+    public String toString() {
+        return mName;
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.animation.TimeInterpolator;
+
+/**
+ * Lets keyframe segments of the value math (which doesn't depend on the Android framework) be
+ * eased with regular interpolators.
+ */
+class InterpolatorEasing implements Easing {
+
+    private final TimeInterpolator mInterpolator;
+
+    InterpolatorEasing(TimeInterpolator interpolator) {
+        mInterpolator = interpolator;
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        return mInterpolator.getInterpolation(input);
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.os.Build;
+import android.view.View;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * Keeps the view on a hardware layer for the duration of the animation
+ * (see {@link ViewPropertyObjectAnimator#withLayer()} and
+ * {@link ViewPropertyObjectAnimator#withAutoLayer()}).
+ * <p>
+ * The layer is shared by all the animations running on the view, the previous layer type is
+ * restored when the last one of them ends (or gets canceled).
+ */
+class LayerListener extends AnimatorListenerAdapter {
+
+    private static final WeakHashMap<View, Layer> sLayers = new WeakHashMap<>();
+
+    private final WeakReference<View> mView;
+    private final FusedUpdateListener mAutoListener;
+    private boolean mAcquired;
+
+    /**
+     * @param autoListener when not {@code null}, the layer is used only if the listener animates
+     *                     nothing but render properties
+     */
+    LayerListener(WeakReference<View> view, FusedUpdateListener autoListener) {
+        mView = view;
+        mAutoListener = autoListener;
+    }
+
+    @Override
+    public void onAnimationStart(Animator animation) {
+        View view = mView.get();
+        if (view == null || mAcquired) {
+            return;
+        }
+        if (mAutoListener != null && !mAutoListener.isRenderOnly()) {
+            //a layer would be re-rendered on every layout pass, which costs more than no layer at all
+            drop(view);
+            return;
+        }
+        acquire(view);
+        mAcquired = true;
+    }
+
+    @Override
+    public void onAnimationEnd(Animator animation) {
+        if (!mAcquired) {
+            return;
+        }
+        mAcquired = false;
+        View view = mView.get();
+        if (view != null) {
+            release(view);
+        }
+    }
+
+    private static void acquire(View view) {
+        Layer layer = sLayers.get(view);
+        if (layer == null) {
+            layer = new Layer(view.getLayerType());
+            sLayers.put(view, layer);
+            enable(view);
+        } else if (layer.mDropped) {
+            layer.mDropped = false;
+            enable(view);
+        }
+        layer.mCount++;
+    }
+
+    private static void release(View view) {
+        Layer layer = sLayers.get(view);
+        if (layer != null && --layer.mCount == 0) {
+            sLayers.remove(view);
+            view.setLayerType(layer.mPreviousType, null);
+        }
+    }
+
+    private static void drop(View view) {
+        Layer layer = sLayers.get(view);
+        if (layer != null && !layer.mDropped) {
+            layer.mDropped = true;
+            view.setLayerType(layer.mPreviousType, null);
+        }
+    }
+
+    private static void enable(View view) {
+        view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        if (isAttachedToWindow(view)) {
+            view.buildLayer();
+        }
+    }
+
+    private static boolean isAttachedToWindow(View view) {
+        if (Build.VERSION.SDK_INT >= 19) {
+            return view.isAttachedToWindow();
+        }
+        return view.getWindowToken() != null;
+    }
+
+    private static class Layer {
+        final int mPreviousType;
+        int mCount;
+        boolean mDropped;
+
+        Layer(int previousType) {
+            mPreviousType = previousType;
+        }
+    }
+}
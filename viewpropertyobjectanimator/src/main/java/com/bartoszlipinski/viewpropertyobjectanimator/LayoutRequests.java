@@ -0,0 +1,94 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.os.Build;
+import android.view.View;
+import android.view.ViewParent;
+
+import java.util.ArrayList;
+
+/**
+ * Batches the layout requests of all running animators per frame.
+ * <p>
+ * Views changed by the listeners are only collected, and a single animation callback then marks
+ * them with {@code forceLayout()} and requests layout of each of their parents just once, instead
+ * of every change walking up the hierarchy on its own. The callback runs at the beginning of the
+ * following frame (before the animators), so views that keep changing are laid out with the
+ * values of the frame being drawn, only the very first change of a view shows up a frame late.
+ * Below API 16 there are no animation callbacks, the batch is flushed by a regular message posted
+ * to the UI thread instead.
+ * <p>
+ * Animators are only updated on the UI thread, so the batch doesn't need any synchronization.
+ */
+final class LayoutRequests {
+
+    //views changed since the last flush, there are rarely more than a few of them
+    private static final ArrayList<View> sPending = new ArrayList<>();
+    private static boolean sScheduled;
+
+    private static final Runnable FLUSH = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    private LayoutRequests() {
+    }
+
+    /**
+     * Issues or schedules a layout request of the view (it might have been waiting for the batch
+     * already, e.g. changed by another listener in the same frame).
+     */
+    static void request(View view) {
+        if (view.getWindowToken() == null) {
+            //a detached view isn't laid out until it gets attached, there's no frame to batch for
+            view.requestLayout();
+            return;
+        }
+        if (sPending.contains(view)) {
+            return;
+        }
+        sPending.add(view);
+        if (!sScheduled) {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                view.postOnAnimation(FLUSH);
+            } else {
+                view.post(FLUSH);
+            }
+            sScheduled = true;
+        }
+    }
+
+    private static void flush() {
+        sScheduled = false;
+        for (int i = 0; i < sPending.size(); i++) {
+            View view = sPending.get(i);
+            ViewParent parent = view.getParent();
+            if (parent == null) {
+                view.requestLayout();
+            } else {
+                //measured again within the parent's layout pass, without requesting it once per child
+                view.forceLayout();
+                if (!parent.isLayoutRequested()) {
+                    parent.requestLayout();
+                }
+            }
+        }
+        sPending.clear();
+    }
+}
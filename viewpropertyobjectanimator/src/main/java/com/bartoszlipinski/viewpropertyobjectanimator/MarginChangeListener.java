@@ -15,7 +15,6 @@
  */
 package com.bartoszlipinski.viewpropertyobjectanimator;
 
-import android.animation.ValueAnimator;
 import android.view.View;
 import android.view.ViewGroup;
 
@@ -23,69 +22,86 @@ import android.view.ViewGroup;
  * Created by Bartosz Lipinski
  * 13.10.15
  */
-class MarginChangeListener extends ChangeUpdateListener implements ValueAnimator.AnimatorUpdateListener {
+class MarginChangeListener extends ChangeUpdateListener {
 
-    private final ViewGroup.MarginLayoutParams mParams;
+    private static final int LEFT_MARGIN = 0;
+    private static final int TOP_MARGIN = 1;
+    private static final int RIGHT_MARGIN = 2;
+    private static final int BOTTOM_MARGIN = 3;
+    private static final int CHANNEL_COUNT = 4;
 
-    private IntValues mLeftMargin;
-    private IntValues mTopMargin;
-    private IntValues mRightMargin;
-    private IntValues mBottomMargin;
+    private ViewGroup.MarginLayoutParams mParams;
 
-    MarginChangeListener(View view) {
-        super(view);
-        mParams = (ViewGroup.MarginLayoutParams) view.getLayoutParams();
-        if (mParams == null) {
-            throw new IllegalStateException("View does not have layout params yet.");
-        }
+    MarginChangeListener() {
+        super(CHANNEL_COUNT);
     }
 
-    private int currentLeftMargin() {
-        return mParams.leftMargin;
+    @Override
+    protected ChangeUpdateListener newInstance() {
+        return new MarginChangeListener();
     }
 
-    private int currentTopMargin() {
-        return mParams.topMargin;
+    @Override
+    protected void onResolve(View view) {
+        ViewGroup.LayoutParams params = view.getLayoutParams();
+        if (params == null) {
+            throw new IllegalStateException("View does not have layout params yet.");
+        }
+        checkLayoutParams(params);
+        mParams = (ViewGroup.MarginLayoutParams) params;
     }
 
-    private int currentRightMargin() {
-        return mParams.rightMargin;
+    @Override
+    void checkLayoutParams(ViewGroup.LayoutParams params) {
+        if (!(params instanceof ViewGroup.MarginLayoutParams)) {
+            throw new IllegalStateException("Animating margins is available only for views with ViewGroup.MarginLayoutParams.");
+        }
     }
 
-    private int currentBottomMargin() {
-        return mParams.bottomMargin;
+    @Override
+    protected float current(View view, int channel) {
+        switch (channel) {
+            case LEFT_MARGIN:
+                return mParams.leftMargin;
+            case TOP_MARGIN:
+                return mParams.topMargin;
+            case RIGHT_MARGIN:
+                return mParams.rightMargin;
+            default:
+                return mParams.bottomMargin;
+        }
     }
 
     public void leftMargin(int margin) {
-        mLeftMargin = new IntValues(currentLeftMargin(), margin);
+        animateTo(LEFT_MARGIN, margin);
     }
 
     public void leftMarginBy(int marginBy) {
-        mLeftMargin = new IntValues(currentLeftMargin(), currentLeftMargin() + marginBy);
+        animateBy(LEFT_MARGIN, marginBy);
     }
 
     public void topMargin(int margin) {
-        mTopMargin = new IntValues(currentTopMargin(), margin);
+        animateTo(TOP_MARGIN, margin);
     }
 
     public void topMarginBy(int marginBy) {
-        mTopMargin = new IntValues(currentTopMargin(), currentTopMargin() + marginBy);
+        animateBy(TOP_MARGIN, marginBy);
     }
 
     public void bottomMargin(int margin) {
-        mBottomMargin = new IntValues(currentBottomMargin(), margin);
+        animateTo(BOTTOM_MARGIN, margin);
     }
 
     public void bottomMarginBy(int marginBy) {
-        mBottomMargin = new IntValues(currentBottomMargin(), currentBottomMargin() + marginBy);
+        animateBy(BOTTOM_MARGIN, marginBy);
     }
 
     public void rightMargin(int margin) {
-        mRightMargin = new IntValues(currentRightMargin(), margin);
+        animateTo(RIGHT_MARGIN, margin);
     }
 
     public void rightMarginBy(int marginBy) {
-        mRightMargin = new IntValues(currentRightMargin(), currentRightMargin() + marginBy);
+        animateBy(RIGHT_MARGIN, marginBy);
     }
 
     public void horizontalMargin(int margin) {
@@ -123,23 +139,46 @@ class MarginChangeListener extends ChangeUpdateListener implements ValueAnimator
     }
 
     @Override
-    public void onAnimationUpdate(ValueAnimator valueAnimator) {
-        if (hasView()) {
-            float animatedFraction = valueAnimator.getAnimatedFraction();
-            if (mLeftMargin != null) {
-                mParams.leftMargin = (int) calculateAnimatedValue(mLeftMargin.mFrom, mLeftMargin.mTo, animatedFraction);
+    boolean changesLayout() {
+        return true;
+    }
+
+    @Override
+    int update(View view, float animationFraction) {
+        boolean changed = false;
+        if (isAnimated(LEFT_MARGIN)) {
+            int leftMargin = (int) animatedValue(LEFT_MARGIN, animationFraction);
+            if (changed(LEFT_MARGIN, leftMargin)) {
+                mParams.leftMargin = leftMargin;
+                changed = true;
             }
-            if (mTopMargin != null) {
-                mParams.topMargin = (int) calculateAnimatedValue(mTopMargin.mFrom, mTopMargin.mTo, animatedFraction);
+        }
+        if (isAnimated(TOP_MARGIN)) {
+            int topMargin = (int) animatedValue(TOP_MARGIN, animationFraction);
+            if (changed(TOP_MARGIN, topMargin)) {
+                mParams.topMargin = topMargin;
+                changed = true;
             }
-            if (mRightMargin != null) {
-                mParams.rightMargin = (int) calculateAnimatedValue(mRightMargin.mFrom, mRightMargin.mTo, animatedFraction);
+        }
+        if (isAnimated(RIGHT_MARGIN)) {
+            int rightMargin = (int) animatedValue(RIGHT_MARGIN, animationFraction);
+            if (changed(RIGHT_MARGIN, rightMargin)) {
+                mParams.rightMargin = rightMargin;
+                changed = true;
             }
-            if (mBottomMargin != null) {
-                mParams.bottomMargin = (int) calculateAnimatedValue(mBottomMargin.mFrom, mBottomMargin.mTo, animatedFraction);
+        }
+        if (isAnimated(BOTTOM_MARGIN)) {
+            int bottomMargin = (int) animatedValue(BOTTOM_MARGIN, animationFraction);
+            if (changed(BOTTOM_MARGIN, bottomMargin)) {
+                mParams.bottomMargin = bottomMargin;
+                changed = true;
             }
-            mView.get().requestLayout();
         }
+        if (changed) {
+            LayoutRequests.request(view);
+            return CHANGED | LAYOUT_REQUESTED;
+        }
+        return UNCHANGED;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.view.View;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Resets the {@link AnimationMetrics} of an animator when it starts and reports them when it ends
+ * (see {@link ViewPropertyObjectAnimator#withMetrics(AnimationMetrics.Listener)}).
+ */
+class MetricsCollector extends AnimatorListenerAdapter {
+
+    private final WeakReference<View> mView;
+    private final AnimationMetrics mMetrics;
+    private final AnimationMetrics.Listener mListener;
+
+    MetricsCollector(WeakReference<View> view, AnimationMetrics metrics, AnimationMetrics.Listener listener) {
+        mView = view;
+        mMetrics = metrics;
+        mListener = listener;
+    }
+
+    @Override
+    public void onAnimationStart(Animator animation) {
+        mMetrics.reset();
+        //added after the LayerListener, so the layer (if any) is already in place
+        View view = mView.get();
+        mMetrics.mWithLayer = view != null && view.getLayerType() == View.LAYER_TYPE_HARDWARE;
+    }
+
+    @Override
+    public void onAnimationEnd(Animator animation) {
+        mListener.onAnimationMetrics(mMetrics);
+    }
+}
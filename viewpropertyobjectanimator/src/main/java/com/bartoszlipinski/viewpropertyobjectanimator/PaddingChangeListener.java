@@ -15,70 +15,73 @@
  */
 package com.bartoszlipinski.viewpropertyobjectanimator;
 
-import android.animation.ValueAnimator;
 import android.view.View;
 
 /**
  * Created by Bartosz Lipinski
  * 13.10.15
  */
-class PaddingChangeListener extends ChangeUpdateListener implements ValueAnimator.AnimatorUpdateListener {
+class PaddingChangeListener extends ChangeUpdateListener {
 
-    private IntValues mLeftPadding;
-    private IntValues mTopPadding;
-    private IntValues mRightPadding;
-    private IntValues mBottomPadding;
+    private static final int LEFT_PADDING = 0;
+    private static final int TOP_PADDING = 1;
+    private static final int RIGHT_PADDING = 2;
+    private static final int BOTTOM_PADDING = 3;
+    private static final int CHANNEL_COUNT = 4;
 
-    PaddingChangeListener(View view) {
-        super(view);
+    PaddingChangeListener() {
+        super(CHANNEL_COUNT);
     }
 
-    private int currentLeftPadding() {
-        return hasView() ? mView.get().getPaddingLeft() : 0;
-    }
-
-    private int currentTopPadding() {
-        return hasView() ? mView.get().getPaddingTop() : 0;
-    }
-
-    private int currentRightPadding() {
-        return hasView() ? mView.get().getPaddingRight() : 0;
+    @Override
+    protected ChangeUpdateListener newInstance() {
+        return new PaddingChangeListener();
     }
 
-    private int currentBottomPadding() {
-        return hasView() ? mView.get().getPaddingBottom() : 0;
+    @Override
+    protected float current(View view, int channel) {
+        switch (channel) {
+            case LEFT_PADDING:
+                return view.getPaddingLeft();
+            case TOP_PADDING:
+                return view.getPaddingTop();
+            case RIGHT_PADDING:
+                return view.getPaddingRight();
+            default:
+                return view.getPaddingBottom();
+        }
     }
 
     public void leftPadding(int padding) {
-        mLeftPadding = new IntValues(currentLeftPadding(), padding);
+        animateTo(LEFT_PADDING, padding);
     }
 
     public void leftPaddingBy(int paddingBy) {
-        mLeftPadding = new IntValues(currentLeftPadding(), currentLeftPadding() + paddingBy);
+        animateBy(LEFT_PADDING, paddingBy);
     }
 
     public void topPadding(int padding) {
-        mTopPadding = new IntValues(currentTopPadding(), padding);
+        animateTo(TOP_PADDING, padding);
     }
 
     public void topPaddingBy(int paddingBy) {
-        mTopPadding = new IntValues(currentTopPadding(), currentTopPadding() + paddingBy);
+        animateBy(TOP_PADDING, paddingBy);
     }
 
     public void bottomPadding(int padding) {
-        mBottomPadding = new IntValues(currentBottomPadding(), padding);
+        animateTo(BOTTOM_PADDING, padding);
     }
 
     public void bottomPaddingBy(int paddingBy) {
-        mBottomPadding = new IntValues(currentBottomPadding(), currentBottomPadding() + paddingBy);
+        animateBy(BOTTOM_PADDING, paddingBy);
     }
 
     public void rightPadding(int padding) {
-        mRightPadding = new IntValues(currentRightPadding(), padding);
+        animateTo(RIGHT_PADDING, padding);
     }
 
     public void rightPaddingBy(int paddingBy) {
-        mRightPadding = new IntValues(currentRightPadding(), currentRightPadding() + paddingBy);
+        animateBy(RIGHT_PADDING, paddingBy);
     }
 
     public void horizontalPadding(int padding) {
@@ -116,28 +119,38 @@ class PaddingChangeListener extends ChangeUpdateListener implements ValueAnimato
     }
 
     @Override
-    public void onAnimationUpdate(ValueAnimator valueAnimator) {
-        if (hasView()) {
-            float animatedFraction = valueAnimator.getAnimatedFraction();
-            int leftPadding = currentLeftPadding();
-            int topPadding = currentTopPadding();
-            int rightPadding = currentRightPadding();
-            int bottomPadding = currentBottomPadding();
-
-            if (mLeftPadding != null) {
-                leftPadding = (int) calculateAnimatedValue(mLeftPadding.mFrom, mLeftPadding.mTo, animatedFraction);
-            }
-            if (mTopPadding != null) {
-                topPadding = (int) calculateAnimatedValue(mTopPadding.mFrom, mTopPadding.mTo, animatedFraction);
-            }
-            if (mRightPadding != null) {
-                rightPadding = (int) calculateAnimatedValue(mRightPadding.mFrom, mRightPadding.mTo, animatedFraction);
-            }
-            if (mBottomPadding != null) {
-                bottomPadding = (int) calculateAnimatedValue(mBottomPadding.mFrom, mBottomPadding.mTo, animatedFraction);
-            }
-            mView.get().setPadding(leftPadding, topPadding, rightPadding, bottomPadding);
+    int update(View view, float animationFraction) {
+        boolean changed = false;
+        int leftPadding = 0;
+        int topPadding = 0;
+        int rightPadding = 0;
+        int bottomPadding = 0;
+        if (isAnimated(LEFT_PADDING)) {
+            leftPadding = (int) animatedValue(LEFT_PADDING, animationFraction);
+            changed |= changed(LEFT_PADDING, leftPadding);
+        }
+        if (isAnimated(TOP_PADDING)) {
+            topPadding = (int) animatedValue(TOP_PADDING, animationFraction);
+            changed |= changed(TOP_PADDING, topPadding);
+        }
+        if (isAnimated(RIGHT_PADDING)) {
+            rightPadding = (int) animatedValue(RIGHT_PADDING, animationFraction);
+            changed |= changed(RIGHT_PADDING, rightPadding);
+        }
+        if (isAnimated(BOTTOM_PADDING)) {
+            bottomPadding = (int) animatedValue(BOTTOM_PADDING, animationFraction);
+            changed |= changed(BOTTOM_PADDING, bottomPadding);
+        }
+        if (changed) {
+            //padding that isn't animated is only read when there's something to apply
+            view.setPadding(
+                    isAnimated(LEFT_PADDING) ? leftPadding : view.getPaddingLeft(),
+                    isAnimated(TOP_PADDING) ? topPadding : view.getPaddingTop(),
+                    isAnimated(RIGHT_PADDING) ? rightPadding : view.getPaddingRight(),
+                    isAnimated(BOTTOM_PADDING) ? bottomPadding : view.getPaddingBottom());
+            return CHANGED | PADDING_SET;
         }
+        return UNCHANGED;
     }
 
 }
\ No newline at end of file
@@ -15,8 +15,6 @@
  */
 package com.bartoszlipinski.viewpropertyobjectanimator;
 
-import android.animation.ValueAnimator;
-import android.animation.ValueAnimator.AnimatorUpdateListener;
 import androidx.percentlayout.widget.PercentLayoutHelper;
 import android.view.View;
 import android.view.ViewGroup;
@@ -25,24 +23,40 @@ import android.view.ViewGroup;
  * Created by Bartosz Lipinski
  * 11.12.2015
  */
-class PercentChangeListener extends ChangeUpdateListener implements AnimatorUpdateListener {
+class PercentChangeListener extends ChangeUpdateListener {
 
-    private final PercentLayoutHelper.PercentLayoutInfo mPercentLayoutInfo;
+    private static final int WIDTH_PERCENT = 0;
+    private static final int HEIGHT_PERCENT = 1;
+    private static final int LEFT_MARGIN_PERCENT = 2;
+    private static final int TOP_MARGIN_PERCENT = 3;
+    private static final int RIGHT_MARGIN_PERCENT = 4;
+    private static final int BOTTOM_MARGIN_PERCENT = 5;
+    private static final int ASPECT_RATIO = 6;
+    private static final int CHANNEL_COUNT = 7;
 
-    private FloatValues mWidthPercent;
-    private FloatValues mHeightPercent;
-    private FloatValues mLeftMarginPercent;
-    private FloatValues mTopMarginPercent;
-    private FloatValues mBottomMarginPercent;
-    private FloatValues mRightMarginPercent;
-    private FloatValues mAspectRatio;
+    private PercentLayoutHelper.PercentLayoutInfo mPercentLayoutInfo;
 
-    PercentChangeListener(View view) {
-        super(view);
+    PercentChangeListener() {
+        super(CHANNEL_COUNT);
+    }
+
+    @Override
+    protected ChangeUpdateListener newInstance() {
+        return new PercentChangeListener();
+    }
+
+    @Override
+    protected void onResolve(View view) {
         ViewGroup.LayoutParams params = view.getLayoutParams();
         if (params == null) {
             throw new IllegalStateException("View does not have layout params yet.");
         }
+        checkLayoutParams(params);
+        mPercentLayoutInfo = ((PercentLayoutHelper.PercentLayoutParams) params).getPercentLayoutInfo();
+    }
+
+    @Override
+    void checkLayoutParams(ViewGroup.LayoutParams params) {
         try {
             if (!(params instanceof PercentLayoutHelper.PercentLayoutParams)) {
                 throw new IllegalStateException("Animating percent parameters (aspectRatio is also a \"percent parameter\") is available only for children of PercentRelativeLayout or PercentFrameLayout (part of the Percent AndroidX library).");
@@ -50,51 +64,48 @@ class PercentChangeListener extends ChangeUpdateListener implements AnimatorUpda
         } catch (NoClassDefFoundError error) {
             throw new IllegalStateException("Animating percent parameters (aspectRatio is also a \"percent parameter\") is available only for children of PercentRelativeLayout or PercentFrameLayout (part of the Percent AndroidX Library).");
         }
-        mPercentLayoutInfo = ((PercentLayoutHelper.PercentLayoutParams) params).getPercentLayoutInfo();
-    }
-
-    private float currentWidthPercent() {
-        return mPercentLayoutInfo.widthPercent;
-    }
-
-    private float currentHeightPercent() {
-        return mPercentLayoutInfo.heightPercent;
-    }
-
-    private float currentLeftMarginPercent() {
-        return mPercentLayoutInfo.leftMarginPercent;
     }
 
-    private float currentTopMarginPercent() {
-        return mPercentLayoutInfo.topMarginPercent;
-    }
-
-    private float currentRightMarginPercent() {
-        return mPercentLayoutInfo.rightMarginPercent;
-    }
-
-    private float currentBottomMarginPercent() {
-        return mPercentLayoutInfo.bottomMarginPercent;
+    @Override
+    protected float current(View view, int channel) {
+        switch (channel) {
+            case WIDTH_PERCENT:
+                return mPercentLayoutInfo.widthPercent;
+            case HEIGHT_PERCENT:
+                return mPercentLayoutInfo.heightPercent;
+            case LEFT_MARGIN_PERCENT:
+                return mPercentLayoutInfo.leftMarginPercent;
+            case TOP_MARGIN_PERCENT:
+                return mPercentLayoutInfo.topMarginPercent;
+            case RIGHT_MARGIN_PERCENT:
+                return mPercentLayoutInfo.rightMarginPercent;
+            case BOTTOM_MARGIN_PERCENT:
+                return mPercentLayoutInfo.bottomMarginPercent;
+            default:
+                return mPercentLayoutInfo.aspectRatio;
+        }
     }
 
-    private float currentAspectRatio() {
-        return mPercentLayoutInfo.aspectRatio;
+    @Override
+    protected float minimumVisibleChange(int channel) {
+        //percents are fractions of the parent's size
+        return 0.001f;
     }
 
     public void widthPercent(float widthPercent) {
-        mWidthPercent = new FloatValues(currentWidthPercent(), widthPercent);
+        animateTo(WIDTH_PERCENT, widthPercent);
     }
 
     public void widthPercentBy(float widthPercentBy) {
-        mWidthPercent = new FloatValues(currentWidthPercent(), currentWidthPercent() + widthPercentBy);
+        animateBy(WIDTH_PERCENT, widthPercentBy);
     }
 
     public void heightPercent(float heightPercent) {
-        mHeightPercent = new FloatValues(currentHeightPercent(), heightPercent);
+        animateTo(HEIGHT_PERCENT, heightPercent);
     }
 
     public void heightPercentBy(float heightPercentBy) {
-        mHeightPercent = new FloatValues(currentHeightPercent(), currentHeightPercent() + heightPercentBy);
+        animateBy(HEIGHT_PERCENT, heightPercentBy);
     }
 
     public void sizePercent(float sizePercent) {
@@ -108,35 +119,35 @@ class PercentChangeListener extends ChangeUpdateListener implements AnimatorUpda
     }
 
     public void leftMarginPercent(float marginPercent) {
-        mLeftMarginPercent = new FloatValues(currentLeftMarginPercent(), marginPercent);
+        animateTo(LEFT_MARGIN_PERCENT, marginPercent);
     }
 
     public void leftMarginPercentBy(float marginPercentBy) {
-        mLeftMarginPercent = new FloatValues(currentLeftMarginPercent(), currentLeftMarginPercent() + marginPercentBy);
+        animateBy(LEFT_MARGIN_PERCENT, marginPercentBy);
     }
 
     public void topMarginPercent(float marginPercent) {
-        mTopMarginPercent = new FloatValues(currentTopMarginPercent(), marginPercent);
+        animateTo(TOP_MARGIN_PERCENT, marginPercent);
     }
 
     public void topMarginPercentBy(float marginPercentBy) {
-        mTopMarginPercent = new FloatValues(currentTopMarginPercent(), currentTopMarginPercent() + marginPercentBy);
+        animateBy(TOP_MARGIN_PERCENT, marginPercentBy);
     }
 
     public void bottomMarginPercent(float marginPercent) {
-        mBottomMarginPercent = new FloatValues(currentBottomMarginPercent(), marginPercent);
+        animateTo(BOTTOM_MARGIN_PERCENT, marginPercent);
     }
 
     public void bottomMarginPercentBy(float marginPercentBy) {
-        mBottomMarginPercent = new FloatValues(currentBottomMarginPercent(), currentBottomMarginPercent() + marginPercentBy);
+        animateBy(BOTTOM_MARGIN_PERCENT, marginPercentBy);
     }
 
     public void rightMarginPercent(float marginPercent) {
-        mRightMarginPercent = new FloatValues(currentRightMarginPercent(), marginPercent);
+        animateTo(RIGHT_MARGIN_PERCENT, marginPercent);
     }
 
     public void rightMarginPercentBy(float marginPercentBy) {
-        mRightMarginPercent = new FloatValues(currentRightMarginPercent(), currentRightMarginPercent() + marginPercentBy);
+        animateBy(RIGHT_MARGIN_PERCENT, marginPercentBy);
     }
 
     public void horizontalMarginPercent(float marginPercent) {
@@ -174,39 +185,74 @@ class PercentChangeListener extends ChangeUpdateListener implements AnimatorUpda
     }
 
     public void aspectRatio(float aspectRatio) {
-        mAspectRatio = new FloatValues(currentAspectRatio(), aspectRatio);
+        animateTo(ASPECT_RATIO, aspectRatio);
     }
 
     public void aspectRatioBy(float aspectRatioBy) {
-        mAspectRatio = new FloatValues(currentAspectRatio(), currentAspectRatio() + aspectRatioBy);
+        animateBy(ASPECT_RATIO, aspectRatioBy);
     }
 
     @Override
-    public void onAnimationUpdate(ValueAnimator valueAnimator) {
-        if (hasView()) {
-            float animatedFraction = valueAnimator.getAnimatedFraction();
-            if (mWidthPercent != null) {
-                mPercentLayoutInfo.widthPercent = calculateAnimatedValue(mWidthPercent.mFrom, mWidthPercent.mTo, animatedFraction);
+    boolean changesLayout() {
+        return true;
+    }
+
+    @Override
+    int update(View view, float animationFraction) {
+        boolean changed = false;
+        if (isAnimated(WIDTH_PERCENT)) {
+            float widthPercent = animatedValue(WIDTH_PERCENT, animationFraction);
+            if (mPercentLayoutInfo.widthPercent != widthPercent) {
+                mPercentLayoutInfo.widthPercent = widthPercent;
+                changed = true;
             }
-            if (mHeightPercent != null) {
-                mPercentLayoutInfo.heightPercent = calculateAnimatedValue(mHeightPercent.mFrom, mHeightPercent.mTo, animatedFraction);
+        }
+        if (isAnimated(HEIGHT_PERCENT)) {
+            float heightPercent = animatedValue(HEIGHT_PERCENT, animationFraction);
+            if (mPercentLayoutInfo.heightPercent != heightPercent) {
+                mPercentLayoutInfo.heightPercent = heightPercent;
+                changed = true;
             }
-            if (mLeftMarginPercent != null) {
-                mPercentLayoutInfo.leftMarginPercent = calculateAnimatedValue(mLeftMarginPercent.mFrom, mLeftMarginPercent.mTo, animatedFraction);
+        }
+        if (isAnimated(LEFT_MARGIN_PERCENT)) {
+            float leftMarginPercent = animatedValue(LEFT_MARGIN_PERCENT, animationFraction);
+            if (mPercentLayoutInfo.leftMarginPercent != leftMarginPercent) {
+                mPercentLayoutInfo.leftMarginPercent = leftMarginPercent;
+                changed = true;
             }
-            if (mTopMarginPercent != null) {
-                mPercentLayoutInfo.topMarginPercent = calculateAnimatedValue(mTopMarginPercent.mFrom, mTopMarginPercent.mTo, animatedFraction);
+        }
+        if (isAnimated(TOP_MARGIN_PERCENT)) {
+            float topMarginPercent = animatedValue(TOP_MARGIN_PERCENT, animationFraction);
+            if (mPercentLayoutInfo.topMarginPercent != topMarginPercent) {
+                mPercentLayoutInfo.topMarginPercent = topMarginPercent;
+                changed = true;
             }
-            if (mRightMarginPercent != null) {
-                mPercentLayoutInfo.rightMarginPercent = calculateAnimatedValue(mRightMarginPercent.mFrom, mRightMarginPercent.mTo, animatedFraction);
+        }
+        if (isAnimated(RIGHT_MARGIN_PERCENT)) {
+            float rightMarginPercent = animatedValue(RIGHT_MARGIN_PERCENT, animationFraction);
+            if (mPercentLayoutInfo.rightMarginPercent != rightMarginPercent) {
+                mPercentLayoutInfo.rightMarginPercent = rightMarginPercent;
+                changed = true;
             }
-            if (mBottomMarginPercent != null) {
-                mPercentLayoutInfo.bottomMarginPercent = calculateAnimatedValue(mBottomMarginPercent.mFrom, mBottomMarginPercent.mTo, animatedFraction);
+        }
+        if (isAnimated(BOTTOM_MARGIN_PERCENT)) {
+            float bottomMarginPercent = animatedValue(BOTTOM_MARGIN_PERCENT, animationFraction);
+            if (mPercentLayoutInfo.bottomMarginPercent != bottomMarginPercent) {
+                mPercentLayoutInfo.bottomMarginPercent = bottomMarginPercent;
+                changed = true;
             }
-            if (mAspectRatio != null) {
-                mPercentLayoutInfo.aspectRatio = calculateAnimatedValue(mAspectRatio.mFrom, mAspectRatio.mTo, animatedFraction);
+        }
+        if (isAnimated(ASPECT_RATIO)) {
+            float aspectRatio = animatedValue(ASPECT_RATIO, animationFraction);
+            if (mPercentLayoutInfo.aspectRatio != aspectRatio) {
+                mPercentLayoutInfo.aspectRatio = aspectRatio;
+                changed = true;
             }
-            mView.get().requestLayout();
         }
+        if (changed) {
+            LayoutRequests.request(view);
+            return CHANGED | LAYOUT_REQUESTED;
+        }
+        return UNCHANGED;
     }
 }
@@ -0,0 +1,88 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.TimeInterpolator;
+import android.animation.ValueAnimator;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewPropertyAnimator;
+import android.view.animation.AccelerateDecelerateInterpolator;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Runs the transform channels of the animation with the view's {@code ViewPropertyAnimator}
+ * (which the platform can run on the RenderThread), started together with the animator and with
+ * the same duration and interpolator (see {@link ViewPropertyObjectAnimator#withRenderThread()}).
+ */
+class RenderThreadListener extends AnimatorListenerAdapter {
+
+    //default interpolator of ValueAnimator, ViewPropertyAnimator keeps the last one it was given
+    private static final TimeInterpolator DEFAULT_INTERPOLATOR = new AccelerateDecelerateInterpolator();
+
+    private final WeakReference<View> mView;
+    private final TransformChangeListener mTransformListener;
+    private final TimeInterpolator mInterpolator;
+    private boolean mCanceled;
+
+    RenderThreadListener(WeakReference<View> view, TransformChangeListener transformListener,
+                         TimeInterpolator interpolator) {
+        mView = view;
+        mTransformListener = transformListener;
+        mInterpolator = interpolator != null ? interpolator : DEFAULT_INTERPOLATOR;
+    }
+
+    @Override
+    public void onAnimationStart(Animator animation) {
+        mCanceled = false;
+        View view = mView.get();
+        //added after the FusedUpdateListener, so the channels taken over by this animation are already known,
+        //keyframes and elevation can't be animated by ViewPropertyAnimator, so they stay on the UI thread
+        if (view == null || !mTransformListener.canDelegate()) {
+            return;
+        }
+        ViewPropertyAnimator animator = view.animate()
+                .setDuration(animation.getDuration())
+                .setStartDelay(0)
+                .setInterpolator(mInterpolator)
+                .setListener(null);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            //an update listener keeps the animation on the UI thread
+            animator.setUpdateListener(null);
+        }
+        mTransformListener.delegateTo(view, animator);
+        animator.start();
+    }
+
+    @Override
+    public void onAnimationCancel(Animator animation) {
+        mCanceled = true;
+        mTransformListener.stopDelegating(true);
+    }
+
+    @Override
+    public void onAnimationEnd(Animator animation) {
+        mTransformListener.stopDelegating(false);
+        View view = mView.get();
+        if (!mCanceled && view != null) {
+            //the animator could have been ended early with end(), so the final values are applied right away
+            mTransformListener.update(view, ((ValueAnimator) animation).getAnimatedFraction());
+        }
+    }
+}
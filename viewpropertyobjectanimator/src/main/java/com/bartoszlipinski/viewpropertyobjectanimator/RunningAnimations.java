@@ -0,0 +1,94 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.WeakHashMap;
+
+/**
+ * Keeps track of the animations running on every view. When a new animation starts, all the
+ * running ones stop animating the properties it takes over, so no two animators write the same
+ * property (and request layout because of it) in the same frame.
+ * <p>
+ * Animations are started on the UI thread only, so the registry doesn't need any synchronization.
+ */
+final class RunningAnimations {
+
+    private static final WeakHashMap<View, ArrayList<FusedUpdateListener>> sRunning = new WeakHashMap<>();
+
+    private RunningAnimations() {
+    }
+
+    /**
+     * Moves a spring running on the view towards the targets of {@code listener} (keeping its
+     * velocity), instead of starting a new animation.
+     *
+     * @return {@code false} if there's no running spring animating all the properties of
+     * {@code listener}
+     */
+    static boolean retarget(FusedUpdateListener listener) {
+        View view = listener.view();
+        ArrayList<FusedUpdateListener> running = view != null ? sRunning.get(view) : null;
+        if (running == null || listener.isEmpty()) {
+            return false;
+        }
+        for (int i = running.size() - 1; i >= 0; i--) {
+            if (running.get(i).retarget(listener, view)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the start values of the animation when it starts (so an animator can be built ahead
+     * of time) and keeps track of it while it's running.
+     */
+    static void started(FusedUpdateListener listener) {
+        View view = listener.view();
+        if (view == null) {
+            return;
+        }
+        listener.start(view);
+        ArrayList<FusedUpdateListener> running = sRunning.get(view);
+        if (running == null) {
+            running = new ArrayList<>(2);
+            sRunning.put(view, running);
+        }
+        for (int i = 0; i < running.size(); i++) {
+            running.get(i).yieldTo(listener, view);
+        }
+        running.add(listener);
+        listener.govern(view);
+    }
+
+    static void ended(FusedUpdateListener listener) {
+        listener.stopGoverning();
+        View view = listener.view();
+        if (view == null) {
+            return;
+        }
+        ArrayList<FusedUpdateListener> running = sRunning.get(view);
+        if (running != null) {
+            running.remove(listener);
+            if (running.isEmpty()) {
+                sRunning.remove(view);
+            }
+        }
+    }
+}
@@ -15,60 +15,68 @@
  */
 package com.bartoszlipinski.viewpropertyobjectanimator;
 
-import android.animation.ValueAnimator;
 import android.view.View;
 
 /**
  * Created by Bartosz Lipinski
  * 30.10.15
  */
-class ScrollChangeListener extends ChangeUpdateListener implements ValueAnimator.AnimatorUpdateListener {
+class ScrollChangeListener extends ChangeUpdateListener {
 
-    private IntValues mScrollX;
-    private IntValues mScrollY;
+    private static final int SCROLL_X = 0;
+    private static final int SCROLL_Y = 1;
+    private static final int CHANNEL_COUNT = 2;
 
-    ScrollChangeListener(View view) {
-        super(view);
+    ScrollChangeListener() {
+        super(CHANNEL_COUNT);
     }
 
-    private int currentScrollX() {
-        return hasView() ? mView.get().getScrollX() : 0;
+    @Override
+    protected ChangeUpdateListener newInstance() {
+        return new ScrollChangeListener();
     }
 
-    private int currentScrollY() {
-        return hasView() ? mView.get().getScrollY() : 0;
+    @Override
+    protected float current(View view, int channel) {
+        return channel == SCROLL_X ? view.getScrollX() : view.getScrollY();
     }
 
     public void scrollX(int scrollX) {
-        mScrollX = new IntValues(currentScrollX(), scrollX);
+        animateTo(SCROLL_X, scrollX);
     }
 
     public void scrollXBy(int scrollXBy) {
-        mScrollX = new IntValues(currentScrollX(), currentScrollX() + scrollXBy);
+        animateBy(SCROLL_X, scrollXBy);
     }
 
     public void scrollY(int scrollY) {
-        mScrollY = new IntValues(currentScrollY(), scrollY);
+        animateTo(SCROLL_Y, scrollY);
     }
 
     public void scrollYBy(int scrollYBy) {
-        mScrollY = new IntValues(currentScrollY(), currentScrollY() + scrollYBy);
+        animateBy(SCROLL_Y, scrollYBy);
     }
 
     @Override
-    public void onAnimationUpdate(ValueAnimator valueAnimator) {
-        if (hasView()) {
-            float animatedFraction = valueAnimator.getAnimatedFraction();
-            int scrollX = currentScrollX();
-            int scrollY = currentScrollY();
-            if (mScrollX != null) {
-                scrollX = (int) calculateAnimatedValue(mScrollX.mFrom, mScrollX.mTo, animatedFraction);
-            }
-            if (mScrollY != null) {
-                scrollY = (int) calculateAnimatedValue(mScrollY.mFrom, mScrollY.mTo, animatedFraction);
-            }
-            mView.get().scrollTo(scrollX, scrollY);
+    int update(View view, float animationFraction) {
+        boolean changed = false;
+        int scrollX = 0;
+        int scrollY = 0;
+        if (isAnimated(SCROLL_X)) {
+            scrollX = (int) animatedValue(SCROLL_X, animationFraction);
+            changed |= changed(SCROLL_X, scrollX);
+        }
+        if (isAnimated(SCROLL_Y)) {
+            scrollY = (int) animatedValue(SCROLL_Y, animationFraction);
+            changed |= changed(SCROLL_Y, scrollY);
+        }
+        if (changed) {
+            view.scrollTo(
+                    isAnimated(SCROLL_X) ? scrollX : view.getScrollX(),
+                    isAnimated(SCROLL_Y) ? scrollY : view.getScrollY());
+            return CHANGED | SCROLLED;
         }
+        return UNCHANGED;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.animation.TimeInterpolator;
+import android.animation.ValueAnimator;
+
+/**
+ * Drives a group of views from a single (linear) animator. Every view gets its own local
+ * fraction, delayed by {@code staggerDelay} relative to the previous one, which is then run
+ * through the interpolator of the animation.
+ */
+class StaggeredUpdateListener implements ValueAnimator.AnimatorUpdateListener {
+
+    private final FusedUpdateListener[] mListeners;
+    private final float[] mLastFractions;
+    private final long mDuration;
+    private final long mStaggerDelay;
+    private final TimeInterpolator mInterpolator;
+
+    StaggeredUpdateListener(FusedUpdateListener[] listeners, long duration, long staggerDelay,
+                            TimeInterpolator interpolator) {
+        mListeners = listeners;
+        mLastFractions = new float[listeners.length];
+        mDuration = duration;
+        mStaggerDelay = staggerDelay;
+        mInterpolator = interpolator;
+        for (int i = 0; i < mLastFractions.length; i++) {
+            mLastFractions[i] = -1;
+        }
+    }
+
+    @Override
+    public void onAnimationUpdate(ValueAnimator valueAnimator) {
+        float playTime = valueAnimator.getAnimatedFraction()
+                * Staggering.totalDuration(mDuration, mStaggerDelay, mListeners.length);
+        for (int i = 0; i < mListeners.length; i++) {
+            float fraction = Staggering.localFraction(playTime, i, mDuration, mStaggerDelay);
+            //views that haven't started yet (or have already finished) don't need to be touched again
+            if (fraction != mLastFractions[i]) {
+                mLastFractions[i] = fraction;
+                mListeners[i].update(mInterpolator.getInterpolation(fraction));
+            }
+        }
+    }
+}
@@ -0,0 +1,315 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.annotation.SuppressLint;
+import android.view.View;
+import android.view.ViewPropertyAnimator;
+
+/**
+ * Animates the render properties of the {@code View} (the ones {@code ViewPropertyAnimator}
+ * handles) through their primitive setters, so nothing gets boxed on the way.
+ */
+class TransformChangeListener extends ChangeUpdateListener {
+
+    static final int SCALE_X = 0;
+    static final int SCALE_Y = 1;
+    static final int TRANSLATION_X = 2;
+    static final int TRANSLATION_Y = 3;
+    static final int TRANSLATION_Z = 4;
+    static final int ALPHA = 5;
+    static final int ROTATION = 6;
+    static final int ROTATION_X = 7;
+    static final int ROTATION_Y = 8;
+    static final int X = 9;
+    static final int Y = 10;
+    static final int Z = 11;
+    static final int ELEVATION = 12;
+    private static final int CHANNEL_COUNT = 13;
+
+    //set while the channels are animated by the ViewPropertyAnimator (see RenderThreadListener)
+    private ViewPropertyAnimator mDelegate;
+    private View mDelegateView;
+    private int mDelegatedChannels;
+
+    TransformChangeListener() {
+        super(CHANNEL_COUNT);
+    }
+
+    public void to(int channel, float toValue) {
+        animateTo(channel, toValue);
+    }
+
+    public void by(int channel, float byValue) {
+        animateBy(channel, byValue);
+    }
+
+    @Override
+    protected ChangeUpdateListener newInstance() {
+        return new TransformChangeListener();
+    }
+
+    @Override
+    protected float current(View view, int channel) {
+        return get(view, channel);
+    }
+
+    @Override
+    protected float minimumVisibleChange(int channel) {
+        switch (channel) {
+            case ALPHA:
+                return 1f / 256;
+            case SCALE_X:
+            case SCALE_Y:
+                return 1f / 500;
+            case ROTATION:
+            case ROTATION_X:
+            case ROTATION_Y:
+                return 0.1f;
+            default:
+                return 1f;
+        }
+    }
+
+    @Override
+    boolean isRenderOnly() {
+        return true;
+    }
+
+    /**
+     * Whether the translation of the view is animated (directly or with {@code x}/{@code y}).
+     */
+    boolean translates() {
+        return isAnimated(TRANSLATION_X) || isAnimated(TRANSLATION_Y) || isAnimated(X) || isAnimated(Y);
+    }
+
+    /**
+     * Whether all the active channels can be handed over to a {@code ViewPropertyAnimator}, which
+     * handles neither keyframes nor elevation.
+     */
+    boolean canDelegate() {
+        return activeChannels() != 0 && !hasKeyframes() && !isAnimated(ELEVATION);
+    }
+
+    /**
+     * Hands all the active channels over to the given {@code ViewPropertyAnimator}, which is
+     * started by the caller. Until the delegation stops, {@link #update(View, float)} doesn't
+     * touch the view.
+     */
+    void delegateTo(View view, ViewPropertyAnimator animator) {
+        for (int channel = 0; channel < CHANNEL_COUNT; channel++) {
+            if (isAnimated(channel)) {
+                //ViewPropertyAnimator starts from the current value, so the one given with from() is applied first
+                if (hasStartValue(channel)) {
+                    set(view, channel, animatedValue(channel, 0f));
+                }
+                animate(animator, channel, animatedValue(channel, 1f));
+            }
+        }
+        mDelegate = animator;
+        mDelegateView = view;
+        mDelegatedChannels = activeChannels();
+    }
+
+    /**
+     * @param cancel whether the delegated channels have to be stopped where they are (only them,
+     *               the {@code ViewPropertyAnimator} is shared by everything calling
+     *               {@code view.animate()}, so it's never canceled as a whole)
+     */
+    void stopDelegating(boolean cancel) {
+        if (mDelegate != null) {
+            if (cancel) {
+                stopDelegated(mDelegatedChannels);
+            }
+            mDelegate = null;
+            mDelegateView = null;
+            mDelegatedChannels = 0;
+        }
+    }
+
+    /**
+     * Stops the given delegated channels at their current values. Animating a property of a
+     * {@code ViewPropertyAnimator} again replaces just the running animation of that property, so
+     * it's animated to the value it has right now, with no duration.
+     */
+    private void stopDelegated(int channels) {
+        long duration = mDelegate.getDuration();
+        long startDelay = mDelegate.getStartDelay();
+        mDelegate.setDuration(0).setStartDelay(0);
+        for (int channel = 0; channel < CHANNEL_COUNT; channel++) {
+            if ((channels & (1 << channel)) != 0) {
+                animate(mDelegate, channel, get(mDelegateView, channel));
+            }
+        }
+        mDelegate.start();
+        //the settings are kept by the ViewPropertyAnimator for the following animations of the view
+        mDelegate.setDuration(duration).setStartDelay(startDelay);
+    }
+
+    @Override
+    void drop(int channels) {
+        super.drop(channels);
+        //taken over by another animation, the remaining channels keep running on the ViewPropertyAnimator
+        int delegated = channels & mDelegatedChannels;
+        if (delegated != 0) {
+            stopDelegated(delegated);
+            mDelegatedChannels &= ~delegated;
+            if (mDelegatedChannels == 0) {
+                stopDelegating(false);
+            }
+        }
+    }
+
+    @Override
+    int update(View view, float animationFraction) {
+        if (mDelegate != null) {
+            return UNCHANGED;
+        }
+        int effects = UNCHANGED;
+        for (int channel = 0; channel < CHANNEL_COUNT; channel++) {
+            if (isAnimated(channel)) {
+                set(view, channel, animatedValue(channel, animationFraction));
+                effects = CHANGED;
+            }
+        }
+        return effects;
+    }
+
+    @SuppressLint("NewApi")
+    static float get(View view, int channel) {
+        switch (channel) {
+            case SCALE_X:
+                return view.getScaleX();
+            case SCALE_Y:
+                return view.getScaleY();
+            case TRANSLATION_X:
+                return view.getTranslationX();
+            case TRANSLATION_Y:
+                return view.getTranslationY();
+            case TRANSLATION_Z:
+                return view.getTranslationZ();
+            case ALPHA:
+                return view.getAlpha();
+            case ROTATION:
+                return view.getRotation();
+            case ROTATION_X:
+                return view.getRotationX();
+            case ROTATION_Y:
+                return view.getRotationY();
+            case X:
+                return view.getX();
+            case Y:
+                return view.getY();
+            case Z:
+                return view.getZ();
+            case ELEVATION:
+                return view.getElevation();
+            default:
+                throw new IllegalArgumentException("Unknown transform channel: " + channel);
+        }
+    }
+
+    @SuppressLint("NewApi")
+    static void set(View view, int channel, float value) {
+        switch (channel) {
+            case SCALE_X:
+                view.setScaleX(value);
+                break;
+            case SCALE_Y:
+                view.setScaleY(value);
+                break;
+            case TRANSLATION_X:
+                view.setTranslationX(value);
+                break;
+            case TRANSLATION_Y:
+                view.setTranslationY(value);
+                break;
+            case TRANSLATION_Z:
+                view.setTranslationZ(value);
+                break;
+            case ALPHA:
+                view.setAlpha(value);
+                break;
+            case ROTATION:
+                view.setRotation(value);
+                break;
+            case ROTATION_X:
+                view.setRotationX(value);
+                break;
+            case ROTATION_Y:
+                view.setRotationY(value);
+                break;
+            case X:
+                view.setX(value);
+                break;
+            case Y:
+                view.setY(value);
+                break;
+            case Z:
+                view.setZ(value);
+                break;
+            case ELEVATION:
+                view.setElevation(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown transform channel: " + channel);
+        }
+    }
+
+    @SuppressLint("NewApi")
+    static void animate(ViewPropertyAnimator animator, int channel, float value) {
+        switch (channel) {
+            case SCALE_X:
+                animator.scaleX(value);
+                break;
+            case SCALE_Y:
+                animator.scaleY(value);
+                break;
+            case TRANSLATION_X:
+                animator.translationX(value);
+                break;
+            case TRANSLATION_Y:
+                animator.translationY(value);
+                break;
+            case TRANSLATION_Z:
+                animator.translationZ(value);
+                break;
+            case ALPHA:
+                animator.alpha(value);
+                break;
+            case ROTATION:
+                animator.rotation(value);
+                break;
+            case ROTATION_X:
+                animator.rotationX(value);
+                break;
+            case ROTATION_Y:
+                animator.rotationY(value);
+                break;
+            case X:
+                animator.x(value);
+                break;
+            case Y:
+                animator.y(value);
+                break;
+            case Z:
+                animator.z(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown transform channel: " + channel);
+        }
+    }
+}
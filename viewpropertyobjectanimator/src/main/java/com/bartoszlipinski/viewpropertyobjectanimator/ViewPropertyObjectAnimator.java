@@ -22,16 +22,13 @@ import android.animation.PropertyValuesHolder;
 import android.animation.ValueAnimator;
 import android.annotation.SuppressLint;
 import android.os.Build;
-import android.util.Property;
 import android.view.View;
 import android.view.animation.Interpolator;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Created by Bartosz Lipinski
@@ -43,101 +40,171 @@ public class ViewPropertyObjectAnimator {
     private long mDuration = -1;
     private long mStartDelay = -1;
     private boolean mWithLayer = false;
+    private boolean mWithAutoLayer = false;
+    private boolean mWithSizeApproximation = false;
+    private boolean mWithRenderThread = false;
+    private boolean mWithLinearColorSpace = false;
+    private Spring mSpring;
+    //family of the properties set by the last call, keyframes added with through() go to them
+    private ChangeUpdateListener mRecentFamily;
     private Interpolator mInterpolator;
+    private AnimationMetrics.Listener mMetricsListener;
     private final List<Animator.AnimatorListener> mListeners = new ArrayList<>();
+    //kept as Runnables, every animator gets its own EndActionListener
+    private final List<Runnable> mEndActions = new ArrayList<>();
     private final List<ValueAnimator.AnimatorUpdateListener> mUpdateListeners = new ArrayList<>();
     private final List<Animator.AnimatorPauseListener> mPauseListeners = new ArrayList<>();
-    private final Map<Property<View, Float>, PropertyValuesHolder> mPropertyHoldersMap = new HashMap<>();
+    private TransformChangeListener mTransformListener;
     private MarginChangeListener mMarginListener;
     private DimensionChangeListener mDimensionListener;
     private PaddingChangeListener mPaddingListener;
     private ScrollChangeListener mScrollListener;
     private PercentChangeListener mPercentListener;
+    private ConstraintChangeListener mConstraintListener;
+    private ColorChangeListener mColorListener;
+    private CustomChangeListener mCustomListener;
+    //set while the families are the ones of a template, they're copied before being modified
+    private boolean mFamiliesShared;
 
     private ViewPropertyObjectAnimator(View view) {
         mView = new WeakReference<>(view);
     }
 
+    ViewPropertyObjectAnimator(View view, AnimationTemplate template) {
+        this(view);
+        mDuration = template.mDuration;
+        mStartDelay = template.mStartDelay;
+        mWithLayer = template.mWithLayer;
+        mWithAutoLayer = template.mWithAutoLayer;
+        mWithSizeApproximation = template.mWithSizeApproximation;
+        mWithRenderThread = template.mWithRenderThread;
+        mWithLinearColorSpace = template.mWithLinearColorSpace;
+        mSpring = template.mSpring;
+        mInterpolator = template.mInterpolator;
+        mMetricsListener = template.mMetricsListener;
+        Collections.addAll(mListeners, template.mListeners);
+        Collections.addAll(mEndActions, template.mEndActions);
+        Collections.addAll(mUpdateListeners, template.mUpdateListeners);
+        Collections.addAll(mPauseListeners, template.mPauseListeners);
+        mTransformListener = template.mTransformListener;
+        mMarginListener = template.mMarginListener;
+        mDimensionListener = template.mDimensionListener;
+        mPaddingListener = template.mPaddingListener;
+        mScrollListener = template.mScrollListener;
+        mPercentListener = template.mPercentListener;
+        mConstraintListener = template.mConstraintListener;
+        mColorListener = template.mColorListener;
+        mCustomListener = template.mCustomListener;
+        mFamiliesShared = true;
+    }
+
     public static ViewPropertyObjectAnimator animate(View view) {
         return new ViewPropertyObjectAnimator(view);
     }
 
-    private void animateProperty(Property<View, Float> property, float toValue) {
-        if (hasView()) {
-            float fromValue = property.get(mView.get());
-            animatePropertyBetween(property, fromValue, toValue);
-        }
+    /**
+     * Starts building an animation that isn't bound to any {@code View}. Use
+     * {@link #toTemplate()} to turn it into an {@link AnimationTemplate} that can be applied to
+     * any number of views. Nothing is read from the views until an animation starts, so templates
+     * can be built on any thread (e.g. by a background binding pipeline).
+     */
+    public static ViewPropertyObjectAnimator template() {
+        return new ViewPropertyObjectAnimator(null);
     }
 
-    private void animatePropertyBy(Property<View, Float> property, float byValue) {
-        if (hasView()) {
-            float fromValue = property.get(mView.get());
-            float toValue = fromValue + byValue;
-            animatePropertyBetween(property, fromValue, toValue);
-        }
+    /**
+     * Captures the current setup (animated properties, timing, interpolator, layer and
+     * listeners) as an immutable {@link AnimationTemplate}. Values of the "By" methods are
+     * applied relatively to each view the template gets applied to.
+     */
+    public AnimationTemplate toTemplate() {
+        return new AnimationTemplate(mDuration, mStartDelay, mWithLayer, mWithAutoLayer,
+                mWithSizeApproximation, mWithRenderThread, mWithLinearColorSpace, mSpring,
+                mInterpolator, mMetricsListener,
+                mListeners.toArray(new Animator.AnimatorListener[0]),
+                mEndActions.toArray(new Runnable[0]),
+                mUpdateListeners.toArray(new ValueAnimator.AnimatorUpdateListener[0]),
+                mPauseListeners.toArray(new Animator.AnimatorPauseListener[0]),
+                copy(mTransformListener), copy(mMarginListener), copy(mDimensionListener),
+                copy(mPaddingListener), copy(mScrollListener), copy(mPercentListener),
+                copy(mConstraintListener), copy(mColorListener), copy(mCustomListener));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends ChangeUpdateListener> T copy(T listener) {
+        return listener == null ? null : (T) listener.copy();
+    }
+
+    private void animateProperty(int channel, float toValue) {
+        //if the same property is assigned again, it simply gets overridden
+        transformListener().to(channel, toValue);
     }
 
-    private void animatePropertyBetween(Property<View, Float> property, float fromValue, float toValue) {
-        mPropertyHoldersMap.remove(property); //if the same property is assigned again, we want to override it
-        mPropertyHoldersMap.put(property, PropertyValuesHolder.ofFloat(property, fromValue, toValue));
+    private void animatePropertyBy(int channel, float byValue) {
+        transformListener().by(channel, byValue);
     }
 
     public ViewPropertyObjectAnimator scaleX(float scaleX) {
-        animateProperty(View.SCALE_X, scaleX);
+        animateProperty(TransformChangeListener.SCALE_X, scaleX);
         return this;
     }
 
     public ViewPropertyObjectAnimator scaleXBy(float scaleXBy) {
-        animatePropertyBy(View.SCALE_X, scaleXBy);
+        animatePropertyBy(TransformChangeListener.SCALE_X, scaleXBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator scaleY(float scaleY) {
-        animateProperty(View.SCALE_Y, scaleY);
+        animateProperty(TransformChangeListener.SCALE_Y, scaleY);
         return this;
     }
 
     public ViewPropertyObjectAnimator scaleYBy(float scaleYBy) {
-        animatePropertyBy(View.SCALE_Y, scaleYBy);
+        animatePropertyBy(TransformChangeListener.SCALE_Y, scaleYBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator scales(float scales) {
-        scaleY(scales);
-        scaleX(scales);
+        //both scales are set through the same recording, so through() applies to both of them
+        TransformChangeListener transformListener = transformListener();
+        transformListener.to(TransformChangeListener.SCALE_Y, scales);
+        transformListener.to(TransformChangeListener.SCALE_X, scales);
         return this;
     }
 
     public ViewPropertyObjectAnimator scalesBy(float scalesBy) {
-        scaleYBy(scalesBy);
-        scaleXBy(scalesBy);
+        TransformChangeListener transformListener = transformListener();
+        transformListener.by(TransformChangeListener.SCALE_Y, scalesBy);
+        transformListener.by(TransformChangeListener.SCALE_X, scalesBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator translationX(float translationX) {
-        animateProperty(View.TRANSLATION_X, translationX);
+        animateProperty(TransformChangeListener.TRANSLATION_X, translationX);
         return this;
     }
 
     public ViewPropertyObjectAnimator translationXBy(float translationXBy) {
-        animatePropertyBy(View.TRANSLATION_X, translationXBy);
+        animatePropertyBy(TransformChangeListener.TRANSLATION_X, translationXBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator translationY(float translationY) {
-        animateProperty(View.TRANSLATION_Y, translationY);
+        animateProperty(TransformChangeListener.TRANSLATION_Y, translationY);
         return this;
     }
 
     public ViewPropertyObjectAnimator translationYBy(float translationYBy) {
-        animatePropertyBy(View.TRANSLATION_Y, translationYBy);
+        animatePropertyBy(TransformChangeListener.TRANSLATION_Y, translationYBy);
         return this;
     }
 
     @SuppressLint("NewApi")
     public ViewPropertyObjectAnimator translationZ(float translationZ) {
         if (android.os.Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            animateProperty(View.TRANSLATION_Z, translationZ);
+            animateProperty(TransformChangeListener.TRANSLATION_Z, translationZ);
+        } else {
+            skipProperty();
         }
         return this;
     }
@@ -145,75 +212,79 @@ public class ViewPropertyObjectAnimator {
     @SuppressLint("NewApi")
     public ViewPropertyObjectAnimator translationZBy(float translationZBy) {
         if (android.os.Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            animatePropertyBy(View.TRANSLATION_Z, translationZBy);
+            animatePropertyBy(TransformChangeListener.TRANSLATION_Z, translationZBy);
+        } else {
+            skipProperty();
         }
         return this;
     }
 
     public ViewPropertyObjectAnimator alpha(float alpha) {
-        animateProperty(View.ALPHA, alpha);
+        animateProperty(TransformChangeListener.ALPHA, alpha);
         return this;
     }
 
     public ViewPropertyObjectAnimator alphaBy(float alphaBy) {
-        animatePropertyBy(View.ALPHA, alphaBy);
+        animatePropertyBy(TransformChangeListener.ALPHA, alphaBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator rotation(float rotation) {
-        animateProperty(View.ROTATION, rotation);
+        animateProperty(TransformChangeListener.ROTATION, rotation);
         return this;
     }
 
     public ViewPropertyObjectAnimator rotationBy(float rotationBy) {
-        animatePropertyBy(View.ROTATION, rotationBy);
+        animatePropertyBy(TransformChangeListener.ROTATION, rotationBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator rotationX(float rotationX) {
-        animateProperty(View.ROTATION_X, rotationX);
+        animateProperty(TransformChangeListener.ROTATION_X, rotationX);
         return this;
     }
 
     public ViewPropertyObjectAnimator rotationXBy(float rotationXBy) {
-        animatePropertyBy(View.ROTATION_X, rotationXBy);
+        animatePropertyBy(TransformChangeListener.ROTATION_X, rotationXBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator rotationY(float rotationY) {
-        animateProperty(View.ROTATION_Y, rotationY);
+        animateProperty(TransformChangeListener.ROTATION_Y, rotationY);
         return this;
     }
 
     public ViewPropertyObjectAnimator rotationYBy(float rotationYBy) {
-        animatePropertyBy(View.ROTATION_Y, rotationYBy);
+        animatePropertyBy(TransformChangeListener.ROTATION_Y, rotationYBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator x(float x) {
-        animateProperty(View.X, x);
+        animateProperty(TransformChangeListener.X, x);
         return this;
     }
 
     public ViewPropertyObjectAnimator xBy(float xBy) {
-        animatePropertyBy(View.X, xBy);
+        animatePropertyBy(TransformChangeListener.X, xBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator y(float y) {
-        animateProperty(View.Y, y);
+        animateProperty(TransformChangeListener.Y, y);
         return this;
     }
 
     public ViewPropertyObjectAnimator yBy(float yBy) {
-        animatePropertyBy(View.Y, yBy);
+        animatePropertyBy(TransformChangeListener.Y, yBy);
         return this;
     }
 
     @SuppressLint("NewApi")
     public ViewPropertyObjectAnimator z(float z) {
         if (android.os.Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            animateProperty(View.Z, z);
+            animateProperty(TransformChangeListener.Z, z);
+        } else {
+            skipProperty();
         }
         return this;
     }
@@ -221,485 +292,736 @@ public class ViewPropertyObjectAnimator {
     @SuppressLint("NewApi")
     public ViewPropertyObjectAnimator zBy(float zBy) {
         if (android.os.Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            animatePropertyBy(View.Z, zBy);
+            animatePropertyBy(TransformChangeListener.Z, zBy);
+        } else {
+            skipProperty();
         }
         return this;
     }
 
-    public ViewPropertyObjectAnimator leftMargin(int leftMargin) {
-        if (initMarginListener()) {
-            mMarginListener.leftMargin(leftMargin);
+    @SuppressLint("NewApi")
+    public ViewPropertyObjectAnimator elevation(float elevation) {
+        if (android.os.Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            animateProperty(TransformChangeListener.ELEVATION, elevation);
+        } else {
+            skipProperty();
         }
         return this;
     }
 
-    public ViewPropertyObjectAnimator leftMarginBy(int leftMarginBy) {
-        if (initMarginListener()) {
-            mMarginListener.leftMarginBy(leftMarginBy);
+    @SuppressLint("NewApi")
+    public ViewPropertyObjectAnimator elevationBy(float elevationBy) {
+        if (android.os.Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            animatePropertyBy(TransformChangeListener.ELEVATION, elevationBy);
+        } else {
+            skipProperty();
         }
         return this;
     }
 
+    public ViewPropertyObjectAnimator leftMargin(int leftMargin) {
+        marginListener().leftMargin(leftMargin);
+        return this;
+    }
+
+    public ViewPropertyObjectAnimator leftMarginBy(int leftMarginBy) {
+        marginListener().leftMarginBy(leftMarginBy);
+        return this;
+    }
+
     public ViewPropertyObjectAnimator topMargin(int topMargin) {
-        if (initMarginListener()) {
-            mMarginListener.topMargin(topMargin);
-        }
+        marginListener().topMargin(topMargin);
         return this;
     }
 
     public ViewPropertyObjectAnimator topMarginBy(int topMarginBy) {
-        if (initMarginListener()) {
-            mMarginListener.topMarginBy(topMarginBy);
-        }
+        marginListener().topMarginBy(topMarginBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator rightMargin(int rightMargin) {
-        if (initMarginListener()) {
-            mMarginListener.rightMargin(rightMargin);
-        }
+        marginListener().rightMargin(rightMargin);
         return this;
     }
 
     public ViewPropertyObjectAnimator rightMarginBy(int rightMarginBy) {
-        if (initMarginListener()) {
-            mMarginListener.rightMarginBy(rightMarginBy);
-        }
+        marginListener().rightMarginBy(rightMarginBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator bottomMargin(int bottomMargin) {
-        if (initMarginListener()) {
-            mMarginListener.bottomMargin(bottomMargin);
-        }
+        marginListener().bottomMargin(bottomMargin);
         return this;
     }
 
     public ViewPropertyObjectAnimator bottomMarginBy(int bottomMarginBy) {
-        if (initMarginListener()) {
-            mMarginListener.bottomMarginBy(bottomMarginBy);
-        }
+        marginListener().bottomMarginBy(bottomMarginBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator horizontalMargin(int horizontalMargin) {
-        if (initMarginListener()) {
-            mMarginListener.horizontalMargin(horizontalMargin);
-        }
+        marginListener().horizontalMargin(horizontalMargin);
         return this;
     }
 
     public ViewPropertyObjectAnimator horizontalMarginBy(int horizontalMarginBy) {
-        if (initMarginListener()) {
-            mMarginListener.horizontalMarginBy(horizontalMarginBy);
-        }
+        marginListener().horizontalMarginBy(horizontalMarginBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator verticalMargin(int verticalMargin) {
-        if (initMarginListener()) {
-            mMarginListener.verticalMargin(verticalMargin);
-        }
+        marginListener().verticalMargin(verticalMargin);
         return this;
     }
 
     public ViewPropertyObjectAnimator verticalMarginBy(int verticalMarginBy) {
-        if (initMarginListener()) {
-            mMarginListener.verticalMarginBy(verticalMarginBy);
-        }
+        marginListener().verticalMarginBy(verticalMarginBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator margin(int margin) {
-        if (initMarginListener()) {
-            mMarginListener.margin(margin);
-        }
+        marginListener().margin(margin);
         return this;
     }
 
     public ViewPropertyObjectAnimator marginBy(int marginBy) {
-        if (initMarginListener()) {
-            mMarginListener.marginBy(marginBy);
-        }
+        marginListener().marginBy(marginBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator width(int width) {
-        if (initDimensionListener()) {
-            mDimensionListener.width(width);
-        }
+        dimensionListener().width(width);
         return this;
     }
 
     public ViewPropertyObjectAnimator widthBy(int widthBy) {
-        if (initDimensionListener()) {
-            mDimensionListener.widthBy(widthBy);
-        }
+        dimensionListener().widthBy(widthBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator height(int height) {
-        if (initDimensionListener()) {
-            mDimensionListener.height(height);
-        }
+        dimensionListener().height(height);
         return this;
     }
 
     public ViewPropertyObjectAnimator heightBy(int heightBy) {
-        if (initDimensionListener()) {
-            mDimensionListener.heightBy(heightBy);
-        }
+        dimensionListener().heightBy(heightBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator size(int size) {
-        if (initDimensionListener()) {
-            mDimensionListener.size(size);
-        }
+        dimensionListener().size(size);
         return this;
     }
 
     public ViewPropertyObjectAnimator sizeBy(int sizeBy) {
-        if (initDimensionListener()) {
-            mDimensionListener.sizeBy(sizeBy);
-        }
+        dimensionListener().sizeBy(sizeBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator leftPadding(int leftPadding) {
-        if (initPaddingListener()) {
-            mPaddingListener.leftPadding(leftPadding);
-        }
+        paddingListener().leftPadding(leftPadding);
         return this;
     }
 
     public ViewPropertyObjectAnimator leftPaddingBy(int leftPaddingBy) {
-        if (initPaddingListener()) {
-            mPaddingListener.leftPaddingBy(leftPaddingBy);
-        }
+        paddingListener().leftPaddingBy(leftPaddingBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator topPadding(int topPadding) {
-        if (initPaddingListener()) {
-            mPaddingListener.topPadding(topPadding);
-        }
+        paddingListener().topPadding(topPadding);
         return this;
     }
 
     public ViewPropertyObjectAnimator topPaddingBy(int topPaddingBy) {
-        if (initPaddingListener()) {
-            mPaddingListener.topPaddingBy(topPaddingBy);
-        }
+        paddingListener().topPaddingBy(topPaddingBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator rightPadding(int rightPadding) {
-        if (initPaddingListener()) {
-            mPaddingListener.rightPadding(rightPadding);
-        }
+        paddingListener().rightPadding(rightPadding);
         return this;
     }
 
     public ViewPropertyObjectAnimator rightPaddingBy(int rightPaddingBy) {
-        if (initPaddingListener()) {
-            mPaddingListener.rightPaddingBy(rightPaddingBy);
-        }
+        paddingListener().rightPaddingBy(rightPaddingBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator bottomPadding(int bottomPadding) {
-        if (initPaddingListener()) {
-            mPaddingListener.bottomPadding(bottomPadding);
-        }
+        paddingListener().bottomPadding(bottomPadding);
         return this;
     }
 
     public ViewPropertyObjectAnimator bottomPaddingBy(int bottomPaddingBy) {
-        if (initPaddingListener()) {
-            mPaddingListener.bottomPaddingBy(bottomPaddingBy);
-        }
+        paddingListener().bottomPaddingBy(bottomPaddingBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator horizontalPadding(int horizontalPadding) {
-        if (initPaddingListener()) {
-            mPaddingListener.horizontalPadding(horizontalPadding);
-        }
+        paddingListener().horizontalPadding(horizontalPadding);
         return this;
     }
 
     public ViewPropertyObjectAnimator horizontalPaddingBy(int horizontalPaddingBy) {
-        if (initPaddingListener()) {
-            mPaddingListener.horizontalPaddingBy(horizontalPaddingBy);
-        }
+        paddingListener().horizontalPaddingBy(horizontalPaddingBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator verticalPadding(int verticalPadding) {
-        if (initPaddingListener()) {
-            mPaddingListener.verticalPadding(verticalPadding);
-        }
+        paddingListener().verticalPadding(verticalPadding);
         return this;
     }
 
     public ViewPropertyObjectAnimator verticalPaddingBy(int verticalPaddingBy) {
-        if (initPaddingListener()) {
-            mPaddingListener.verticalPaddingBy(verticalPaddingBy);
-        }
+        paddingListener().verticalPaddingBy(verticalPaddingBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator padding(int padding) {
-        if (initPaddingListener()) {
-            mPaddingListener.padding(padding);
-        }
+        paddingListener().padding(padding);
         return this;
     }
 
     public ViewPropertyObjectAnimator paddingBy(int paddingBy) {
-        if (initPaddingListener()) {
-            mPaddingListener.paddingBy(paddingBy);
-        }
+        paddingListener().paddingBy(paddingBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator scrollX(int scrollX) {
-        if (initScrollListener()) {
-            mScrollListener.scrollX(scrollX);
-        }
+        scrollListener().scrollX(scrollX);
         return this;
     }
 
     public ViewPropertyObjectAnimator scrollXBy(int scrollXBy) {
-        if (initScrollListener()) {
-            mScrollListener.scrollXBy(scrollXBy);
-        }
+        scrollListener().scrollXBy(scrollXBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator scrollY(int scrollY) {
-        if (initScrollListener()) {
-            mScrollListener.scrollY(scrollY);
-        }
+        scrollListener().scrollY(scrollY);
         return this;
     }
 
     public ViewPropertyObjectAnimator scrollYBy(int scrollYBy) {
-        if (initScrollListener()) {
-            mScrollListener.scrollYBy(scrollYBy);
-        }
+        scrollListener().scrollYBy(scrollYBy);
         return this;
     }
     
     public ViewPropertyObjectAnimator widthPercent(float widthPercent) {
-        if (initPercentListener()){
-            mPercentListener.widthPercent(widthPercent);
-        }
+        percentListener().widthPercent(widthPercent);
         return this;
     }
 
     public ViewPropertyObjectAnimator widthPercentBy(float widthPercentBy) {
-        if (initPercentListener()){
-            mPercentListener.widthPercentBy(widthPercentBy);
-        }
+        percentListener().widthPercentBy(widthPercentBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator heightPercent(float heightPercent) {
-        if (initPercentListener()){
-            mPercentListener.heightPercent(heightPercent);
-        }
+        percentListener().heightPercent(heightPercent);
         return this;
     }
 
     public ViewPropertyObjectAnimator heightPercentBy(float heightPercentBy) {
-        if (initPercentListener()){
-            mPercentListener.heightPercentBy(heightPercentBy);
-        }
+        percentListener().heightPercentBy(heightPercentBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator sizePercent(float sizePercent) {
-        if (initPercentListener()){
-            mPercentListener.sizePercent(sizePercent);
-        }
+        percentListener().sizePercent(sizePercent);
         return this;
     }
 
     public ViewPropertyObjectAnimator sizePercentBy(float sizePercentBy) {
-        if (initPercentListener()){
-            mPercentListener.sizePercentBy(sizePercentBy);
-        }
+        percentListener().sizePercentBy(sizePercentBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator leftMarginPercent(float marginPercent) {
-        if (initPercentListener()){
-            mPercentListener.leftMarginPercent(marginPercent);
-        }
+        percentListener().leftMarginPercent(marginPercent);
         return this;
     }
 
     public ViewPropertyObjectAnimator leftMarginPercentBy(float marginPercentBy) {
-        if (initPercentListener()){
-            mPercentListener.leftMarginPercentBy(marginPercentBy);
-        }
+        percentListener().leftMarginPercentBy(marginPercentBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator topMarginPercent(float marginPercent) {
-        if (initPercentListener()){
-            mPercentListener.topMarginPercent(marginPercent);
-        }
+        percentListener().topMarginPercent(marginPercent);
         return this;
     }
 
     public ViewPropertyObjectAnimator topMarginPercentBy(float marginPercentBy) {
-        if (initPercentListener()){
-            mPercentListener.topMarginPercentBy(marginPercentBy);
-        }
+        percentListener().topMarginPercentBy(marginPercentBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator bottomMarginPercent(float marginPercent) {
-        if (initPercentListener()){
-            mPercentListener.bottomMarginPercent(marginPercent);
-        }
+        percentListener().bottomMarginPercent(marginPercent);
         return this;
     }
 
     public ViewPropertyObjectAnimator bottomMarginPercentBy(float marginPercentBy) {
-        if (initPercentListener()){
-            mPercentListener.bottomMarginPercentBy(marginPercentBy);
-        }
+        percentListener().bottomMarginPercentBy(marginPercentBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator rightMarginPercent(float marginPercent) {
-        if (initPercentListener()){
-            mPercentListener.rightMarginPercent(marginPercent);
-        }
+        percentListener().rightMarginPercent(marginPercent);
         return this;
     }
 
     public ViewPropertyObjectAnimator rightMarginPercentBy(float marginPercentBy) {
-        if (initPercentListener()){
-            mPercentListener.rightMarginPercentBy(marginPercentBy);
-        }
+        percentListener().rightMarginPercentBy(marginPercentBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator horizontalMarginPercent(float marginPercent) {
-        if (initPercentListener()){
-            mPercentListener.horizontalMarginPercent(marginPercent);
-        }
+        percentListener().horizontalMarginPercent(marginPercent);
         return this;
     }
 
     public ViewPropertyObjectAnimator horizontalMarginPercentBy(float marginPercentBy) {
-        if (initPercentListener()){
-            mPercentListener.horizontalMarginPercentBy(marginPercentBy);
-        }
+        percentListener().horizontalMarginPercentBy(marginPercentBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator verticalMarginPercent(float marginPercent) {
-        if (initPercentListener()){
-            mPercentListener.verticalMarginPercent(marginPercent);
-        }
+        percentListener().verticalMarginPercent(marginPercent);
         return this;
     }
 
     public ViewPropertyObjectAnimator verticalMarginPercentBy(float marginPercentBy) {
-        if (initPercentListener()){
-            mPercentListener.verticalMarginPercentBy(marginPercentBy);
-        }
+        percentListener().verticalMarginPercentBy(marginPercentBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator marginPercent(float marginPercent) {
-        if (initPercentListener()){
-            mPercentListener.marginPercent(marginPercent);
-        }
+        percentListener().marginPercent(marginPercent);
         return this;
     }
 
     public ViewPropertyObjectAnimator marginPercentBy(float marginPercentBy) {
-        if (initPercentListener()){
-            mPercentListener.marginPercentBy(marginPercentBy);
-        }
+        percentListener().marginPercentBy(marginPercentBy);
         return this;
     }
 
     public ViewPropertyObjectAnimator aspectRatio(float aspectRatio) {
-        if (initPercentListener()){
-            mPercentListener.aspectRatio(aspectRatio);
-        }
+        percentListener().aspectRatio(aspectRatio);
         return this;
     }
 
     public ViewPropertyObjectAnimator aspectRatioBy(float aspectRatioBy) {
-        if (initPercentListener()){
-            mPercentListener.aspectRatioBy(aspectRatioBy);
+        percentListener().aspectRatioBy(aspectRatioBy);
+        return this;
+    }
+
+    /**
+     * Animates {@code layout_constraintWidth_percent} of a {@code ConstraintLayout} child (part of
+     * the ConstraintLayout AndroidX library). Like all the other constraint parameters it needs
+     * neither the Percent library nor nested percent layouts.
+     * <p>
+     * The view has to have {@code layout_width="0dp"}, its width is switched to the percent mode
+     * when the animation starts (the same goes for {@link #constraintHeightPercent(float)}).
+     */
+    public ViewPropertyObjectAnimator constraintWidthPercent(float constraintWidthPercent) {
+        constraintListener().widthPercent(constraintWidthPercent);
+        return this;
+    }
+
+    public ViewPropertyObjectAnimator constraintWidthPercentBy(float constraintWidthPercentBy) {
+        constraintListener().widthPercentBy(constraintWidthPercentBy);
+        return this;
+    }
+
+    public ViewPropertyObjectAnimator constraintHeightPercent(float constraintHeightPercent) {
+        constraintListener().heightPercent(constraintHeightPercent);
+        return this;
+    }
+
+    public ViewPropertyObjectAnimator constraintHeightPercentBy(float constraintHeightPercentBy) {
+        constraintListener().heightPercentBy(constraintHeightPercentBy);
+        return this;
+    }
+
+    public ViewPropertyObjectAnimator horizontalBias(float horizontalBias) {
+        constraintListener().horizontalBias(horizontalBias);
+        return this;
+    }
+
+    public ViewPropertyObjectAnimator horizontalBiasBy(float horizontalBiasBy) {
+        constraintListener().horizontalBiasBy(horizontalBiasBy);
+        return this;
+    }
+
+    public ViewPropertyObjectAnimator verticalBias(float verticalBias) {
+        constraintListener().verticalBias(verticalBias);
+        return this;
+    }
+
+    public ViewPropertyObjectAnimator verticalBiasBy(float verticalBiasBy) {
+        constraintListener().verticalBiasBy(verticalBiasBy);
+        return this;
+    }
+
+    /**
+     * Animates the dimension ratio (width / height) of a {@code ConstraintLayout} child. The ratio
+     * is a {@code String} in {@code ConstraintLayout.LayoutParams}, so it's written with a
+     * precision of {@code 0.001}. Unlike the other properties it allocates (once per written
+     * value), the Strings are cached for the following frames and animations though.
+     */
+    public ViewPropertyObjectAnimator dimensionRatio(float dimensionRatio) {
+        constraintListener().dimensionRatio(dimensionRatio);
+        return this;
+    }
+
+    public ViewPropertyObjectAnimator dimensionRatioBy(float dimensionRatioBy) {
+        constraintListener().dimensionRatioBy(dimensionRatioBy);
+        return this;
+    }
+
+    /**
+     * Animates the position of a {@code Guideline} (percent of the parent's size).
+     */
+    public ViewPropertyObjectAnimator guidePercent(float guidePercent) {
+        constraintListener().guidePercent(guidePercent);
+        return this;
+    }
+
+    public ViewPropertyObjectAnimator guidePercentBy(float guidePercentBy) {
+        constraintListener().guidePercentBy(guidePercentBy);
+        return this;
+    }
+
+    /**
+     * Animates the background color (ARGB) of the view. A background that isn't a
+     * {@code ColorDrawable} is animated from transparent and gets replaced with a color.
+     */
+    public ViewPropertyObjectAnimator backgroundColor(int color) {
+        colorListener().backgroundColor(color);
+        return this;
+    }
+
+    /**
+     * Animates the text color (ARGB) of a {@code TextView}.
+     */
+    public ViewPropertyObjectAnimator textColor(int color) {
+        colorListener().textColor(color);
+        return this;
+    }
+
+    /**
+     * Animates the tint (ARGB) of the image of an {@code ImageView}. Unless the view has its own
+     * tint mode, the tint is drawn over the image ({@code SRC_ATOP}), so a transparent tint leaves
+     * the image as it is.
+     */
+    @SuppressLint("NewApi")
+    public ViewPropertyObjectAnimator tint(int color) {
+        if (android.os.Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            colorListener().tint(color);
+        } else {
+            skipProperty();
         }
         return this;
     }
-    
-    private boolean initMarginListener() {
-        //we're initializing margin listener only when needed (it can cause an exception when there are no params)
+
+    /**
+     * Animates a custom {@code float} property of the view (see {@link FloatChannel}), sharing
+     * the timeline, listeners and layer with all the other properties.
+     */
+    public ViewPropertyObjectAnimator property(FloatChannel<?> channel, float value) {
+        customListener().to(channel, value);
+        return this;
+    }
+
+    public ViewPropertyObjectAnimator propertyBy(FloatChannel<?> channel, float valueBy) {
+        customListener().by(channel, valueBy);
+        return this;
+    }
+
+    /**
+     * Animates a custom {@code int} property of the view (see {@link IntChannel}), sharing the
+     * timeline, listeners and layer with all the other properties.
+     */
+    public ViewPropertyObjectAnimator property(IntChannel<?> channel, int value) {
+        customListener().to(channel, value);
+        return this;
+    }
+
+    public ViewPropertyObjectAnimator propertyBy(IntChannel<?> channel, int valueBy) {
+        customListener().by(channel, valueBy);
+        return this;
+    }
+
+    private void unshareFamilies() {
+        if (mFamiliesShared) {
+            mTransformListener = copy(mTransformListener);
+            mMarginListener = copy(mMarginListener);
+            mDimensionListener = copy(mDimensionListener);
+            mPaddingListener = copy(mPaddingListener);
+            mScrollListener = copy(mScrollListener);
+            mPercentListener = copy(mPercentListener);
+            mConstraintListener = copy(mConstraintListener);
+            mColorListener = copy(mColorListener);
+            mCustomListener = copy(mCustomListener);
+            mFamiliesShared = false;
+        }
+    }
+
+    //listeners are initialized only when needed, values are read from the view once the animator gets built
+    private TransformChangeListener transformListener() {
+        unshareFamilies();
+        if (mTransformListener == null) {
+            mTransformListener = new TransformChangeListener();
+        }
+        record(mTransformListener);
+        return mTransformListener;
+    }
+
+    private MarginChangeListener marginListener() {
+        unshareFamilies();
         if (mMarginListener == null) {
-            if (!hasView()) {
-                return false;
-            }
-            mMarginListener = new MarginChangeListener(mView.get());
+            mMarginListener = checked(new MarginChangeListener());
         }
-        return true;
+        record(mMarginListener);
+        return mMarginListener;
     }
 
-    private boolean initDimensionListener() {
-        //we're initializing dimension listener only when needed (it can cause an exception when there are no params)
+    private DimensionChangeListener dimensionListener() {
+        unshareFamilies();
         if (mDimensionListener == null) {
-            if (!hasView()) {
-                return false;
-            }
-            mDimensionListener = new DimensionChangeListener(mView.get());
+            mDimensionListener = new DimensionChangeListener();
         }
-        return true;
+        record(mDimensionListener);
+        return mDimensionListener;
     }
 
-    private boolean initPaddingListener() {
+    private PaddingChangeListener paddingListener() {
+        unshareFamilies();
         if (mPaddingListener == null) {
-            if (!hasView()) {
-                return false;
-            }
-            mPaddingListener = new PaddingChangeListener(mView.get());
+            mPaddingListener = new PaddingChangeListener();
         }
-        return true;
+        record(mPaddingListener);
+        return mPaddingListener;
     }
 
-    private boolean initScrollListener() {
+    private ScrollChangeListener scrollListener() {
+        unshareFamilies();
         if (mScrollListener == null) {
-            if (!hasView()) {
-                return false;
-            }
-            mScrollListener = new ScrollChangeListener(mView.get());
+            mScrollListener = new ScrollChangeListener();
         }
-        return true;
+        record(mScrollListener);
+        return mScrollListener;
     }
 
-    private boolean initPercentListener() {
-        if (mPercentListener ==null){
-            if (!hasView()){
-                return false;
-            }
-            mPercentListener = new PercentChangeListener(mView.get());
+    private PercentChangeListener percentListener() {
+        unshareFamilies();
+        if (mPercentListener == null) {
+            mPercentListener = checked(new PercentChangeListener());
+        }
+        record(mPercentListener);
+        return mPercentListener;
+    }
+
+    private ConstraintChangeListener constraintListener() {
+        unshareFamilies();
+        if (mConstraintListener == null) {
+            mConstraintListener = checked(new ConstraintChangeListener());
         }
-        return true;
+        record(mConstraintListener);
+        return mConstraintListener;
+    }
+
+    private ColorChangeListener colorListener() {
+        unshareFamilies();
+        if (mColorListener == null) {
+            mColorListener = new ColorChangeListener();
+        }
+        record(mColorListener);
+        return mColorListener;
+    }
+
+    private CustomChangeListener customListener() {
+        unshareFamilies();
+        if (mCustomListener == null) {
+            mCustomListener = new CustomChangeListener();
+        }
+        record(mCustomListener);
+        return mCustomListener;
+    }
+
+    //layout params are read only when the animation starts, but the ones the view already has are checked right away
+    private <T extends ChangeUpdateListener> T checked(T family) {
+        View view = mView.get();
+        if (view != null && view.getLayoutParams() != null) {
+            family.checkLayoutParams(view.getLayoutParams());
+        }
+        return family;
+    }
+
+    private void record(ChangeUpdateListener family) {
+        mRecentFamily = family;
+        family.beginRecording();
+    }
+
+    private void skipProperty() {
+        //nothing gets animated, so there's nothing for through() to add keyframes to
+        mRecentFamily = null;
+    }
+
+    /**
+     * Adds an intermediate value (keyframe) to the properties set by the previous call, e.g.
+     * <pre>
+     * animate(view).leftMargin(16).through(40).through(0).get()
+     * </pre>
+     * animates the left margin from its current value to {@code 40}, then to {@code 0} and
+     * finally to {@code 16}, all within a single animator. Keyframes are spread evenly over the
+     * animation, unless their fraction is given (see {@link #through(float, float)}). For the
+     * "By" methods the values are relative to the start value.
+     * <p>
+     * Keyframes are not used with {@link #withSpring()} and they keep the render properties on
+     * the UI thread when used with {@link #withRenderThread()}. Colors don't support keyframes
+     * ({@code IllegalStateException} is thrown).
+     */
+    public ViewPropertyObjectAnimator through(float value) {
+        return through(Float.NaN, value, null);
+    }
+
+    /**
+     * @param fraction fraction of the animation ({@code > 0} and {@code < 1}) at which the value is
+     *                 reached, each keyframe of a property has to come later than the previous one
+     */
+    public ViewPropertyObjectAnimator through(float fraction, float value) {
+        return through(fraction, value, null);
+    }
+
+    /**
+     * @param interpolator interpolator of the part of the animation leading to this keyframe
+     *                     ({@code null} for a linear one)
+     */
+    public ViewPropertyObjectAnimator through(float fraction, float value, Interpolator interpolator) {
+        if (mRecentFamily != null) {
+            mRecentFamily.through(fraction, value, interpolator != null ? new InterpolatorEasing(interpolator) : null);
+        }
+        return this;
+    }
+
+    /**
+     * Makes the properties set by the previous call start from the given value, instead of the
+     * value the view has when the animation starts, e.g. {@code alpha(1f).from(0f)}. For the "By"
+     * methods the change is applied to the given value. Colors don't support start values
+     * ({@code IllegalStateException} is thrown).
+     */
+    public ViewPropertyObjectAnimator from(float value) {
+        if (mRecentFamily != null) {
+            mRecentFamily.from(value);
+        }
+        return this;
     }
 
     public ViewPropertyObjectAnimator withLayer() {
         mWithLayer = true;
+        mWithAutoLayer = false;
+        return this;
+    }
+
+    /**
+     * Like {@link #withLayer()}, but the hardware layer is only used when the animation changes
+     * nothing but render properties (alpha, translation, scale, rotation, elevation). Animating
+     * layout properties (dimensions, margins, padding, scroll, percent, constraints) or colors
+     * invalidates the layer on every frame, so in that case the layer is skipped, and dropped if
+     * another animation put the view on one.
+     */
+    public ViewPropertyObjectAnimator withAutoLayer() {
+        mWithAutoLayer = true;
+        mWithLayer = false;
+        return this;
+    }
+
+    /**
+     * Animates {@code width}/{@code height} changes with {@code scaleX}/{@code scaleY} (anchored
+     * to the top-left corner) instead of changing the {@code LayoutParams} on every frame. The real
+     * dimensions are committed once, when the animation ends (or gets canceled), so the whole
+     * animation costs a single layout pass.
+     * <p>
+     * While the animation is running its content gets stretched and surrounding views don't
+     * follow the size change. Scale and pivot of the view shouldn't be animated at the same time.
+     * Below API 28 the translation of a view with the default pivot is used to anchor the scale,
+     * if the animation moves the view as well, its size is animated with layout passes.
+     */
+    public ViewPropertyObjectAnimator withSizeApproximation() {
+        mWithSizeApproximation = true;
+        return this;
+    }
+
+    /**
+     * Interpolates the red, green and blue components of the animated colors in linear space
+     * (like {@code ArgbEvaluator} does since API 26) instead of the gamma encoded one, so the
+     * colors in between don't get muddy or darker. Ignored by springs.
+     */
+    public ViewPropertyObjectAnimator withLinearColorSpace() {
+        mWithLinearColorSpace = true;
+        return this;
+    }
+
+    /**
+     * Reports the work done by every run of the animator (frames, time spent applying the values,
+     * layout requests, etc.) to the given listener, when the animation ends or gets canceled.
+     * Meant for debugging and performance monitoring, without it nothing is measured.
+     * <p>
+     * Metrics are not collected for the staggered group animators of {@link AnimationTemplate}.
+     */
+    public ViewPropertyObjectAnimator withMetrics(AnimationMetrics.Listener listener) {
+        mMetricsListener = listener;
+        return this;
+    }
+
+    /**
+     * Runs the render properties (alpha, translation, scale, rotation, x/y/z) with the view's
+     * {@code ViewPropertyAnimator}, which the platform can run on the RenderThread, so they keep
+     * animating smoothly even when the UI thread is busy. Animating elevation (which
+     * {@code ViewPropertyAnimator} doesn't support) keeps them all on the UI thread. It's started when the returned animator
+     * starts, with the same duration and interpolator, while all the other properties and the
+     * listeners stay on the animator.
+     * <p>
+     * Canceling the animator stops the properties it handed over where they are, other
+     * {@code ViewPropertyAnimator} animations of the view keep running. Pausing, seeking and reversing only affect the properties that stay on the animator. Not
+     * supported by the staggered group animators of {@link AnimationTemplate}.
+     */
+    public ViewPropertyObjectAnimator withRenderThread() {
+        mWithRenderThread = true;
+        return this;
+    }
+
+    /**
+     * Same as {@link #withSpring(float, float)} with a medium stiffness ({@code 1500}) and a
+     * medium bouncy damping ratio ({@code 0.5}).
+     */
+    public ViewPropertyObjectAnimator withSpring() {
+        return withSpring(1500f, 0.5f);
+    }
+
+    /**
+     * Moves all the properties with a spring instead of a fixed duration tween. The animator
+     * runs (and its update listeners are notified) until the spring comes to rest, so the
+     * duration and interpolator are ignored.
+     * <p>
+     * When an animation takes properties over from a running spring, they keep their velocity.
+     * If {@link #start()} is called while a spring animating all the requested properties runs on
+     * the view, that spring is just moved towards the new targets (and the listeners of this
+     * animator are ignored), which makes it cheap to follow e.g. a drag gesture.
+     * Springs are not used by the staggered group animators of {@link AnimationTemplate}, nor
+     * with {@link #withRenderThread()}, and they ignore keyframes.
+     *
+     * @param stiffness    stiffness of the spring, the higher it is the faster the spring moves
+     * @param dampingRatio {@code 0} for an undamped spring that oscillates forever, {@code 1}
+     *                     for a critically damped one, that doesn't bounce at all
+     */
+    public ViewPropertyObjectAnimator withSpring(float stiffness, float dampingRatio) {
+        mSpring = new Spring(stiffness, dampingRatio);
         return this;
     }
 
@@ -736,6 +1058,7 @@ public class ViewPropertyObjectAnimator {
 
     public ViewPropertyObjectAnimator removeAllListeners() {
         mListeners.clear();
+        mEndActions.clear();
         return this;
     }
 
@@ -785,59 +1108,53 @@ public class ViewPropertyObjectAnimator {
         });
     }
 
-    public ViewPropertyObjectAnimator withEndAction(final Runnable runnable) {
-        return addListener(new AnimatorListenerAdapter() {
-            private boolean mIsCanceled;
-
-            @Override
-            public void onAnimationCancel(Animator animation) {
-                mIsCanceled = true;
-            }
-
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                if (!mIsCanceled) {
-                    runnable.run();
-                }
-                removeListener(this);
-            }
-        });
+    public ViewPropertyObjectAnimator withEndAction(Runnable runnable) {
+        mEndActions.add(runnable);
+        return this;
     }
 
     private boolean hasView() {
         return mView.get() != null;
     }
 
-    @SuppressLint("NewApi")
     public ObjectAnimator get() {
-        if (hasView()) {
-            Collection<PropertyValuesHolder> holders = mPropertyHoldersMap.values();
-            ObjectAnimator animator =
-                    ObjectAnimator.ofPropertyValuesHolder(mView.get(),
-                            holders.toArray(new PropertyValuesHolder[0]));
-            if (mWithLayer) {
-                animator.addListener(new AnimatorListenerAdapter() {
-                    int mCurrentLayerType = View.LAYER_TYPE_NONE;
-                    @Override
-                    public void onAnimationStart(Animator animation) {
-                        if (hasView()) {
-                            View view = mView.get();
-                            mCurrentLayerType = view.getLayerType();
-                            view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
-                            if(isAttachedToWindow(view)) {
-                                view.buildLayer();
-                            }
-                        }
-                    }
+        return build(false);
+    }
 
-                    @Override
-                    public void onAnimationEnd(Animator animation) {
-                        if (hasView()) {
-                            mView.get().setLayerType(mCurrentLayerType, null);
-                        }
-                    }
-                });
+    /**
+     * Returns an {@link AnimationToggle} playing this animation forwards and backwards (e.g.
+     * expand/collapse), always with the same animator. The start values are read just once, so
+     * reversing goes back to the state of the view from before the first {@code forward()}.
+     * <p>
+     * The animator of the toggle never goes to the pool, and the properties animated with
+     * {@link #withRenderThread()} stay on the UI thread (so they can be reversed at any point).
+     */
+    public AnimationToggle getToggle() {
+        if (mSpring != null) {
+            throw new IllegalStateException("Animations with a spring can't be reversed.");
+        }
+        return new AnimationToggle(build(true));
+    }
+
+    @SuppressLint("NewApi")
+    private ObjectAnimator build(boolean reversible) {
+        if (hasView()) {
+            //reversible animators are kept by their owners, so they can't be recycled
+            AnimatorPool.Entry pooled = !reversible && AnimatorPool.isEnabled()
+                    ? AnimatorPool.obtain(mView.get())
+                    : null;
+            ObjectAnimator animator = pooled != null
+                    ? pooled.mAnimator
+                    : ObjectAnimator.ofPropertyValuesHolder(mView.get());
+            FusedUpdateListener updateListener = updateListener(mSpring);
+            if (reversible) {
+                updateListener.keepStartValues();
+            }
+            if (!updateListener.isEmpty()) {
+                //reads the start values, so it has to be notified before any other listener
+                animator.addListener(updateListener);
             }
+            addViewListeners(animator, updateListener);
             if (mStartDelay != -1) {
                 animator.setStartDelay(mStartDelay);
             }
@@ -847,23 +1164,37 @@ public class ViewPropertyObjectAnimator {
             if (mInterpolator != null) {
                 animator.setInterpolator(mInterpolator);
             }
+            if (mSpring != null && !updateListener.isEmpty()) {
+                //ended by the update listener, once the spring comes to rest
+                animator.setRepeatCount(ValueAnimator.INFINITE);
+            }
             for (Animator.AnimatorListener listener : mListeners) {
                 animator.addListener(listener);
             }
-            if (mMarginListener != null) {
-                animator.addUpdateListener(mMarginListener);
+            for (Runnable action : mEndActions) {
+                animator.addListener(new EndActionListener(action));
             }
-            if (mDimensionListener != null) {
-                animator.addUpdateListener(mDimensionListener);
-            }
-            if (mPaddingListener != null) {
-                animator.addUpdateListener(mPaddingListener);
+            if (!updateListener.isEmpty()) {
+                if (mSpring == null && android.os.Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+                    //evaluated by the animator itself, so the properties follow seeking and there's no listener dispatch
+                    if (pooled != null) {
+                        pooled.driveProgress(updateListener);
+                    } else {
+                        animator.setValues(PropertyValuesHolder.ofFloat(new FusedProgressProperty(updateListener), 0f, 1f));
+                    }
+                } else {
+                    //springs need the frame time, which isn't available to a property
+                    animator.addUpdateListener(updateListener);
+                }
             }
-            if (mScrollListener != null) {
-                animator.addUpdateListener(mScrollListener);
+            TransformChangeListener transformListener = updateListener.family(TransformChangeListener.class);
+            if (mWithRenderThread && !reversible && mSpring == null && transformListener != null) {
+                animator.addListener(new RenderThreadListener(mView, transformListener, mInterpolator));
             }
-            if (mPercentListener != null) {
-                animator.addUpdateListener(mPercentListener);
+            if (mMetricsListener != null) {
+                AnimationMetrics metrics = new AnimationMetrics();
+                updateListener.setMetrics(metrics);
+                animator.addListener(new MetricsCollector(mView, metrics, mMetricsListener));
             }
             for (ValueAnimator.AnimatorUpdateListener listener : mUpdateListeners) {
                 animator.addUpdateListener(listener);
@@ -873,20 +1204,89 @@ public class ViewPropertyObjectAnimator {
                     animator.addPauseListener(listener);
                 }
             }
+            if (pooled != null) {
+                pooled.recycleOnEnd();
+            }
             return animator;
         }
         return ObjectAnimator.ofFloat(null, View.ALPHA, 1, 1);
     }
 
     public void start() {
+        if (mSpring != null && hasView() && RunningAnimations.retarget(fusedListener())) {
+            return;
+        }
         get().start();
     }
 
-    private static boolean isAttachedToWindow(View view){
-        if (Build.VERSION.SDK_INT >= 19) {
-            return view.isAttachedToWindow();
+    /**
+     * Adds the listeners managing the state of the view itself (hardware layer, size approximation).
+     */
+    void addViewListeners(Animator animator, FusedUpdateListener updateListener) {
+        //the approximation is set up first, so the auto layer knows whether the size changes are scaled
+        DimensionChangeListener dimensionListener = updateListener.family(DimensionChangeListener.class);
+        if (dimensionListener != null) {
+            dimensionListener.approximate(mWithSizeApproximation);
+            TransformChangeListener transformListener = updateListener.family(TransformChangeListener.class);
+            boolean translates = transformListener != null && transformListener.translates();
+            Animator.AnimatorListener approximationListener = dimensionListener.approximationListener(mView, translates);
+            if (approximationListener != null) {
+                animator.addListener(approximationListener);
+            }
         }
-        return view.getWindowToken() != null;
+        if (mWithLayer) {
+            animator.addListener(new LayerListener(mView, null));
+        } else if (mWithAutoLayer) {
+            animator.addListener(new LayerListener(mView, updateListener));
+        }
+    }
+
+    /**
+     * Returns a listener driving all the animated properties. Start values are read from the view
+     * when the animation starts (see {@link RunningAnimations#started(FusedUpdateListener)}).
+     * <p>
+     * Every listener gets its own copy of the values (just like the animators of a template), so
+     * all the animators built by this object can run at the same time.
+     */
+    FusedUpdateListener updateListener() {
+        return updateListener(null);
+    }
+
+    private FusedUpdateListener updateListener(Spring spring) {
+        FusedUpdateListener updateListener = new FusedUpdateListener(mView, copy(mTransformListener),
+                copy(mMarginListener), copy(mDimensionListener), copy(mPaddingListener),
+                copy(mScrollListener), copy(mPercentListener), copy(mConstraintListener),
+                copy(mColorListener), copy(mCustomListener));
+        updateListener.spring(spring);
+        ColorChangeListener colorListener = updateListener.family(ColorChangeListener.class);
+        if (colorListener != null) {
+            colorListener.linear(mWithLinearColorSpace);
+        }
+        return updateListener;
+    }
+
+    //only the targets are read when retargeting a running spring, so the values don't need to be copied
+    private FusedUpdateListener fusedListener() {
+        return new FusedUpdateListener(mView, mTransformListener, mMarginListener, mDimensionListener,
+                mPaddingListener, mScrollListener, mPercentListener, mConstraintListener, mColorListener,
+                mCustomListener);
+    }
+
+    /**
+     * Enables pooling of the {@code ObjectAnimator}s returned by {@link #get()}. Every animator
+     * goes back to the pool (up to {@code maxSize} of them) once it ends or gets canceled and
+     * is reused by one of the following {@code get()} calls.
+     * <p>
+     * With pooling enabled an animator can't be used after it ended (no restarting, reversing or
+     * keeping it in an {@code AnimatorSet} that gets started again). Passing {@code 0} disables
+     * pooling (default).
+     * <p>
+     * The animator is pooled along with its property holder on API 24+. Every {@code get()} still
+     * creates the listener driving the properties (with the values of the animated properties) and
+     * the optional listeners (layer, metrics, render thread, end actions).
+     */
+    public static void setAnimatorPoolSize(int maxSize) {
+        AnimatorPool.setMaxSize(maxSize);
     }
 
 }
@@ -0,0 +1,285 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.content.res.ColorStateList;
+import android.graphics.PorterDuff;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+
+import androidx.constraintlayout.widget.ConstraintLayout;
+import androidx.percentlayout.widget.PercentFrameLayout;
+import androidx.percentlayout.widget.PercentLayoutHelper;
+
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs every property family through thousands of frames and checks that, once an animation ran
+ * for the first time (loading the classes and filling the caches), its frames don't allocate at all.
+ * <p>
+ * Animators of the unit test {@code android.jar} do nothing, so the frames are dispatched to the
+ * {@link FusedUpdateListener} directly. This covers the code of the library only, not the platform
+ * one (animators, property holders, color state lists) it ends up calling.
+ */
+public class FrameAllocationTest {
+
+    //much more than the number of distinct values of the animated properties, so every value is applied many times
+    private static final int FRAMES = 4000;
+    //the JVM can allocate on its own once in a while (e.g. when compiled code gets deoptimized), so the best of a few runs counts
+    private static final int RUNS = 5;
+
+    @Test
+    public void marginFramesDontAllocate() {
+        TestView view = new TestView(marginParams(200, 100));
+        FusedUpdateListener listener = ViewPropertyObjectAnimator.animate(view)
+                .margin(300).from(0)
+                .updateListener();
+
+        assertFramesDontAllocate(view, listener);
+        assertEquals(300, ((ViewGroup.MarginLayoutParams) view.getLayoutParams()).leftMargin);
+        assertTrue(view.mLayoutRequests > 0);
+    }
+
+    @Test
+    public void dimensionFramesDontAllocate() {
+        TestView view = new TestView(marginParams(200, 100));
+        FusedUpdateListener listener = ViewPropertyObjectAnimator.animate(view)
+                .size(600).from(100)
+                .updateListener();
+
+        assertFramesDontAllocate(view, listener);
+        assertEquals(600, view.getLayoutParams().width);
+        assertEquals(600, view.getLayoutParams().height);
+    }
+
+    @Test
+    public void paddingFramesDontAllocate() {
+        TestView view = new TestView(marginParams(200, 100));
+        view.setPadding(0, 8, 0, 8);
+        FusedUpdateListener listener = ViewPropertyObjectAnimator.animate(view)
+                .horizontalPadding(400).from(0)
+                .updateListener();
+
+        assertFramesDontAllocate(view, listener);
+        assertEquals(400, view.getPaddingLeft());
+        assertEquals(8, view.getPaddingTop());
+        assertTrue(view.mPaddingSets > 0);
+    }
+
+    @Test
+    public void scrollFramesDontAllocate() {
+        TestView view = new TestView(marginParams(200, 100));
+        view.scrollTo(16, 0);
+        FusedUpdateListener listener = ViewPropertyObjectAnimator.animate(view)
+                .scrollY(1000).from(0)
+                .updateListener();
+
+        assertFramesDontAllocate(view, listener);
+        assertEquals(16, view.getScrollX());
+        assertEquals(1000, view.getScrollY());
+        assertTrue(view.mScrolls > 0);
+    }
+
+    @SuppressWarnings("deprecation")
+    @Test
+    public void percentFramesDontAllocate() {
+        PercentFrameLayout.LayoutParams params = new PercentFrameLayout.LayoutParams(200, 100);
+        TestView view = new TestView(params);
+        FusedUpdateListener listener = ViewPropertyObjectAnimator.animate(view)
+                .widthPercent(0.8f).from(0.2f)
+                .leftMarginPercent(0.1f).from(0f)
+                .aspectRatio(2f).from(1f)
+                .updateListener();
+
+        assertFramesDontAllocate(view, listener);
+        PercentLayoutHelper.PercentLayoutInfo info = params.getPercentLayoutInfo();
+        assertEquals(0.8f, info.widthPercent, 0f);
+        assertEquals(2f, info.aspectRatio, 0f);
+    }
+
+    @Test
+    public void constraintFramesDontAllocate() {
+        ConstraintLayout.LayoutParams params = new ConstraintLayout.LayoutParams(0, 0);
+        params.width = ConstraintLayout.LayoutParams.MATCH_CONSTRAINT;
+        params.height = ConstraintLayout.LayoutParams.MATCH_CONSTRAINT;
+        params.dimensionRatio = "H,1:1";
+        TestView view = new TestView(params);
+        //the formatted ratios are cached per value, the range fits the cache without collisions
+        FusedUpdateListener listener = ViewPropertyObjectAnimator.animate(view)
+                .constraintWidthPercent(0.9f).from(0.3f)
+                .horizontalBias(1f).from(0f)
+                .dimensionRatio(1.2f).from(1f)
+                .updateListener();
+
+        assertFramesDontAllocate(view, listener);
+        assertEquals(ConstraintLayout.LayoutParams.MATCH_CONSTRAINT_PERCENT, params.matchConstraintDefaultWidth);
+        assertEquals(0.9f, params.matchConstraintPercentWidth, 0f);
+        assertEquals("H,1.2", params.dimensionRatio);
+    }
+
+    @Test
+    public void colorFramesDontAllocate() {
+        TestView view = new TestView(marginParams(200, 100));
+        FusedUpdateListener listener = ViewPropertyObjectAnimator.animate(view)
+                .backgroundColor(0xFF3F51B5)
+                .updateListener();
+
+        assertFramesDontAllocate(view, listener);
+        assertEquals(0xFF3F51B5, view.backgroundColor());
+        assertTrue(view.mBackgroundColorSets > 0);
+    }
+
+    //ColorStateList.valueOf() of the unit test android.jar returns null, so only the color math is covered, not the cache of the lists
+    @Test
+    public void linearTextColorMathDoesntAllocate() {
+        TestTextView view = new TestTextView();
+        FusedUpdateListener listener = ViewPropertyObjectAnimator.animate(view)
+                .textColor(0xFFFFFFFF)
+                .withLinearColorSpace()
+                .updateListener();
+
+        assertFramesDontAllocate(view, listener);
+        assertTrue(view.mTextColorSets > 0);
+    }
+
+    //just like the text color, the cache of the color state lists isn't covered
+    @Test
+    public void tintMathDoesntAllocate() {
+        TestImageView view = new TestImageView();
+        //tint() of the builder needs API 21, while the unit test android.jar reports API 0
+        ColorChangeListener colorListener = new ColorChangeListener();
+        colorListener.tint(0x80FF4081);
+        FusedUpdateListener listener = new FusedUpdateListener(new WeakReference<View>(view), colorListener);
+
+        assertFramesDontAllocate(view, listener);
+        assertTrue(view.mTintSets > 0);
+    }
+
+    @Test
+    public void batchedLayoutRequestsDontAllocate() {
+        TestView view = new TestView(marginParams(0, 0));
+        view.attach();
+        //both families change in every frame
+        FusedUpdateListener listener = ViewPropertyObjectAnimator.animate(view)
+                .leftMargin(FRAMES).from(0)
+                .width(FRAMES).from(0)
+                .updateListener();
+
+        assertFramesDontAllocate(view, listener);
+
+        view.mLayoutRequests = 0;
+        animate(view, listener);
+        //a single request per frame at most, no matter how many families changed the layout
+        assertTrue(view.mLayoutRequests > 0);
+        assertTrue(view.mLayoutRequests <= FRAMES + 1);
+    }
+
+    private static void assertFramesDontAllocate(View view, FusedUpdateListener listener) {
+        //the first run loads the classes and fills the caches
+        animate(view, listener);
+        long allocated = animate(view, listener);
+        for (int run = 1; run < RUNS && allocated > 0; run++) {
+            allocated = Math.min(allocated, animate(view, listener));
+        }
+        assertEquals("bytes allocated by " + FRAMES + " frames", 0, allocated);
+    }
+
+    /**
+     * Runs the whole animation (the frames only, starting and ending it isn't counted).
+     *
+     * @return bytes allocated by the frames
+     */
+    private static long animate(View view, FusedUpdateListener listener) {
+        //colors never request layout, so only a TestView gets any animation callbacks
+        TestView testView = view instanceof TestView ? (TestView) view : null;
+        listener.onAnimationStart(null);
+        long start = Allocations.start();
+        for (int frame = 0; frame <= FRAMES; frame++) {
+            listener.update((float) frame / FRAMES);
+            if (testView != null) {
+                testView.runAnimationCallback();
+            }
+        }
+        long allocated = Allocations.since(start);
+        listener.onAnimationEnd(null);
+        return allocated;
+    }
+
+    private static ViewGroup.MarginLayoutParams marginParams(int width, int height) {
+        ViewGroup.MarginLayoutParams params = new ViewGroup.MarginLayoutParams(width, height);
+        //constructors of the unit test android.jar don't set anything
+        params.width = width;
+        params.height = height;
+        return params;
+    }
+
+    private static class TestTextView extends TextView {
+
+        int mTextColorSets;
+
+        TestTextView() {
+            super(null);
+        }
+
+        @Override
+        public int getCurrentTextColor() {
+            return 0xFF000000;
+        }
+
+        @Override
+        public void setTextColor(ColorStateList colors) {
+            mTextColorSets++;
+        }
+    }
+
+    private static class TestImageView extends ImageView {
+
+        private PorterDuff.Mode mTintMode;
+        int mTintSets;
+
+        TestImageView() {
+            super(null);
+        }
+
+        @Override
+        public ColorStateList getImageTintList() {
+            //the animations always start from no tint
+            return null;
+        }
+
+        @Override
+        public void setImageTintList(ColorStateList tint) {
+            mTintSets++;
+        }
+
+        @Override
+        public PorterDuff.Mode getImageTintMode() {
+            return mTintMode;
+        }
+
+        @Override
+        public void setImageTintMode(PorterDuff.Mode tintMode) {
+            mTintMode = tintMode;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.animation.ObjectAnimator;
+import android.view.ViewGroup;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks how much a {@code get()} with a pooled animator allocates (the listener driving the
+ * properties and the copies of their values). The budgets are fixed, a change going over one has
+ * to get rid of its allocations instead of raising it.
+ */
+public class GetAllocationTest {
+
+    //bytes per get() of an animation of a transform and a layout property
+    private static final long TEMPLATE_GET_BUDGET = 1024;
+    private static final long GET_BUDGET = 1536;
+    private static final int GETS = 1000;
+
+    private TestView mView;
+    //the only animator in the pool, every get() takes it out
+    private AnimatorPool.Entry mPooled;
+
+    @Before
+    public void setUp() {
+        ViewGroup.MarginLayoutParams params = new ViewGroup.MarginLayoutParams(200, 100);
+        params.width = 200;
+        params.height = 100;
+        mView = new TestView(params);
+        ViewPropertyObjectAnimator.setAnimatorPoolSize(1);
+        //animators of the unit test android.jar do nothing (not even notify the recycling listener), so they're recycled by hand
+        mPooled = new AnimatorPool.Entry(new ObjectAnimator());
+        AnimatorPool.recycle(mPooled);
+    }
+
+    @After
+    public void tearDown() {
+        ViewPropertyObjectAnimator.setAnimatorPoolSize(0);
+    }
+
+    @Test
+    public void templateGetStaysWithinBudget() {
+        AnimationTemplate template = ViewPropertyObjectAnimator.template()
+                .alpha(0f)
+                .leftMargin(100)
+                .setDuration(300)
+                .toTemplate();
+        //the first calls load the classes
+        for (int i = 0; i < GETS; i++) {
+            template.get(mView);
+            AnimatorPool.recycle(mPooled);
+        }
+
+        long allocated = 0;
+        for (int i = 0; i < GETS; i++) {
+            long start = Allocations.start();
+            template.get(mView);
+            allocated += Allocations.since(start);
+            AnimatorPool.recycle(mPooled);
+        }
+
+        assertWithinBudget(allocated / GETS, TEMPLATE_GET_BUDGET);
+    }
+
+    @Test
+    public void getStaysWithinBudget() {
+        for (int i = 0; i < GETS; i++) {
+            get();
+            AnimatorPool.recycle(mPooled);
+        }
+
+        long allocated = 0;
+        for (int i = 0; i < GETS; i++) {
+            long start = Allocations.start();
+            get();
+            allocated += Allocations.since(start);
+            AnimatorPool.recycle(mPooled);
+        }
+
+        assertWithinBudget(allocated / GETS, GET_BUDGET);
+    }
+
+    //everything a builder records is counted as well
+    private ObjectAnimator get() {
+        return ViewPropertyObjectAnimator.animate(mView)
+                .alpha(0f)
+                .leftMargin(100)
+                .setDuration(300)
+                .get();
+    }
+
+    private static void assertWithinBudget(long allocated, long budget) {
+        assertTrue(allocated + " B per get() (budget: " + budget + " B)", allocated <= budget);
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright 2015 Bartosz Lipinski
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bartoszlipinski.viewpropertyobjectanimator;
+
+import android.graphics.drawable.Drawable;
+import android.os.Binder;
+import android.os.IBinder;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * {@code View} keeping its layout params, padding, scroll and background color in plain fields, so
+ * the animations can be run on the JVM (every other method of the unit test {@code android.jar}
+ * does nothing). Counts the calls the animations are expected to make.
+ */
+class TestView extends View {
+
+    private ViewGroup.LayoutParams mLayoutParams;
+    private int mWidth;
+    private int mHeight;
+    private int mPaddingLeft;
+    private int mPaddingTop;
+    private int mPaddingRight;
+    private int mPaddingBottom;
+    private int mScrollX;
+    private int mScrollY;
+    private int mBackgroundColor;
+    private IBinder mWindowToken;
+    private Runnable mAnimationCallback;
+
+    int mLayoutRequests;
+    int mPaddingSets;
+    int mScrolls;
+    int mBackgroundColorSets;
+
+    TestView() {
+        super(null);
+    }
+
+    TestView(ViewGroup.LayoutParams params) {
+        this();
+        mLayoutParams = params;
+        mWidth = params.width;
+        mHeight = params.height;
+    }
+
+    /**
+     * Makes the view behave as if it was attached to a window, so its layout requests get batched
+     * until {@link #runAnimationCallback()}.
+     */
+    void attach() {
+        mWindowToken = new Binder();
+    }
+
+    /**
+     * Runs the callback posted with {@link #postOnAnimation(Runnable)} (or {@link #post(Runnable)}
+     * below API 16, which the unit test {@code android.jar} reports), like the next frame would.
+     */
+    void runAnimationCallback() {
+        Runnable callback = mAnimationCallback;
+        mAnimationCallback = null;
+        if (callback != null) {
+            callback.run();
+        }
+    }
+
+    @Override
+    public ViewGroup.LayoutParams getLayoutParams() {
+        return mLayoutParams;
+    }
+
+    @Override
+    public void setLayoutParams(ViewGroup.LayoutParams params) {
+        mLayoutParams = params;
+        requestLayout();
+    }
+
+    @Override
+    public void requestLayout() {
+        mLayoutRequests++;
+    }
+
+    @Override
+    public IBinder getWindowToken() {
+        return mWindowToken;
+    }
+
+    @Override
+    public void postOnAnimation(Runnable action) {
+        mAnimationCallback = action;
+    }
+
+    @Override
+    public boolean post(Runnable action) {
+        mAnimationCallback = action;
+        return true;
+    }
+
+    @Override
+    public int getPaddingLeft() {
+        return mPaddingLeft;
+    }
+
+    @Override
+    public int getPaddingTop() {
+        return mPaddingTop;
+    }
+
+    @Override
+    public int getPaddingRight() {
+        return mPaddingRight;
+    }
+
+    @Override
+    public int getPaddingBottom() {
+        return mPaddingBottom;
+    }
+
+    @Override
+    public void setPadding(int left, int top, int right, int bottom) {
+        mPaddingLeft = left;
+        mPaddingTop = top;
+        mPaddingRight = right;
+        mPaddingBottom = bottom;
+        mPaddingSets++;
+    }
+
+    @Override
+    public int getScrollX() {
+        return mScrollX;
+    }
+
+    @Override
+    public int getScrollY() {
+        return mScrollY;
+    }
+
+    @Override
+    public void scrollTo(int x, int y) {
+        mScrollX = x;
+        mScrollY = y;
+        mScrolls++;
+    }
+
+    @Override
+    public Drawable getBackground() {
+        //the animations always start from a transparent background
+        return null;
+    }
+
+    @Override
+    public void setBackgroundColor(int color) {
+        mBackgroundColor = color;
+        mBackgroundColorSets++;
+    }
+
+    int backgroundColor() {
+        return mBackgroundColor;
+    }
+
+    @Override
+    public int getWidth() {
+        return mWidth;
+    }
+
+    @Override
+    public int getHeight() {
+        return mHeight;
+    }
+}